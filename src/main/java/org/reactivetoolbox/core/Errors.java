@@ -27,6 +27,8 @@ public interface Errors {
     // Scheduler
     Failure TIMEOUT = Failure.failure(WebFailureTypes.REQUEST_TIMEOUT, "Processing timeout error");
     Failure CANCELLED = Failure.failure(WebFailureTypes.NO_RESPONSE, "Request cancelled");
+    Failure OVERLOADED = Failure.failure(WebFailureTypes.TOO_MANY_REQUESTS, "Scheduler capacity exceeded");
+    Failure SHUT_DOWN = Failure.failure(WebFailureTypes.SERVICE_UNAVAILABLE, "Scheduler is shut down");
 
     //TypeToken
     static Failure TYPE_ERROR(final Type type) {
@@ -17,7 +17,10 @@ package org.reactivetoolbox.core.async;
  */
 
 import org.reactivetoolbox.core.Errors;
+import org.reactivetoolbox.core.async.impl.AllCollector;
+import org.reactivetoolbox.core.async.impl.AnyCollector;
 import org.reactivetoolbox.core.async.impl.PromiseImpl;
+import org.reactivetoolbox.core.async.impl.ResolvedPromise;
 import org.reactivetoolbox.core.lang.Failure;
 import org.reactivetoolbox.core.lang.Functions.FN1;
 import org.reactivetoolbox.core.lang.List;
@@ -29,6 +32,9 @@ import org.reactivetoolbox.core.lang.Tuple.Tuple7;
 import org.reactivetoolbox.core.lang.Tuple.Tuple8;
 import org.reactivetoolbox.core.lang.Tuple.Tuple9;
 import org.reactivetoolbox.core.log.CoreLogger;
+import org.reactivetoolbox.core.meta.AppMetaRepository;
+import org.reactivetoolbox.core.scheduler.BlockingTaskScheduler;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
 import org.reactivetoolbox.core.scheduler.Timeout;
 
 import java.util.Queue;
@@ -73,6 +79,65 @@ public interface Promise<T> {
      */
     Promise<T> async(final Timeout timeout, final Consumer<Promise<T>> task);
 
+    /**
+     * Run specified task asynchronously using specified scheduler. Current instance of {@link Promise} is passed
+     * to the task as a parameter.
+     *
+     * @param scheduler Scheduler which will run the task
+     * @param task Task to execute with this promise
+     * @return Current instance
+     */
+    default Promise<T> async(final TaskScheduler scheduler, final Consumer<Promise<T>> task) {
+        scheduler.submit(() -> task.accept(this));
+        return this;
+    }
+
+    /**
+     * Run specified task asynchronously if it can be started before specified deadline. If task is not started
+     * in time, instance is resolved with {@link Errors#TIMEOUT} instead. Current instance of {@link Promise} is passed
+     * to the task as a parameter.
+     *
+     * @param deadline Relative deadline of the task
+     * @param task Task to execute with this promise
+     * @return Current instance
+     */
+    default Promise<T> asyncWithDeadline(final Timeout deadline, final Consumer<Promise<T>> task) {
+        return asyncWithDeadline(AppMetaRepository.instance().get(TaskScheduler.class), deadline, task);
+    }
+
+    /**
+     * Run specified task asynchronously using specified scheduler if it can be started before specified deadline.
+     * If task is not started in time, instance is resolved with {@link Errors#TIMEOUT} instead. Current instance
+     * of {@link Promise} is passed to the task as a parameter.
+     *
+     * @param scheduler Scheduler which will run the task
+     * @param deadline Relative deadline of the task
+     * @param task Task to execute with this promise
+     * @return Current instance
+     */
+    default Promise<T> asyncWithDeadline(final TaskScheduler scheduler, final Timeout deadline,
+                                         final Consumer<Promise<T>> task) {
+        scheduler.submitExpiring(deadline,
+                                 nanoTime -> {
+                                     task.accept(this);
+                                     return true;
+                                 },
+                                 () -> fail(Errors.TIMEOUT));
+        return this;
+    }
+
+    /**
+     * Run specified task asynchronously using {@link BlockingTaskScheduler}. This method should be used for tasks
+     * which perform blocking calls (JDBC, file I/O, etc.), so they don't occupy threads of the scheduler used
+     * for short non-blocking tasks. Current instance of {@link Promise} is passed to the task as a parameter.
+     *
+     * @param task Task to execute with this promise
+     * @return Current instance
+     */
+    default Promise<T> asyncBlocking(final Consumer<Promise<T>> task) {
+        return async(AppMetaRepository.instance().get(BlockingTaskScheduler.class), task);
+    }
+
     /**
      * Synchronously wait for this instance resolution.
      * <br/>
@@ -101,6 +166,20 @@ public interface Promise<T> {
      */
     Promise<T> resolve(final Result<T> result);
 
+    /**
+     * Resolve the promise with specified result in trampolining mode. Callbacks are invoked synchronously, as with
+     * {@link #resolve(Result)}, but resolutions of other instances triggered by these callbacks (and so on, down the
+     * chain) are invoked iteratively once nesting becomes too deep. This keeps stack depth bounded regardless of the
+     * length of the chain of {@link #map(FN1)}/{@link #chainMap(FN1)} stages. Note that in this mode callbacks of
+     * deeply nested instances may be invoked after the callback which resolved them returns.
+     *
+     * @param result The value which will be stored in this instance and make it resolved
+     * @return Current instance
+     */
+    default Promise<T> resolveTrampolined(final Result<T> result) {
+        return resolve(result);
+    }
+
     /**
      * Resolve the promise with specified result. All actions already
      * waiting for resolution will be scheduled for asynchronous execution.
@@ -187,6 +266,23 @@ public interface Promise<T> {
         return async(timeout, promise -> promise.resolve(timeoutResultSupplier.get()));
     }
 
+    /**
+     * Set timeout for instance resolution using specified scheduler. When timeout expires, instance will be resolved
+     * with value returned by provided supplier. Timeout task is cancelled once instance is resolved.
+     *
+     * @param scheduler             Scheduler which tracks timeout
+     * @param timeout               Timeout amount
+     * @param timeoutResultSupplier Supplier of resolution value in case of timeout
+     * @return Current instance
+     */
+    default Promise<T> when(final TaskScheduler scheduler, final Timeout timeout,
+                            final Supplier<Result<T>> timeoutResultSupplier) {
+        final var handle = scheduler.schedule(timeout, () -> resolve(timeoutResultSupplier.get()));
+
+        onResult(result -> handle.cancel());
+        return this;
+    }
+
     default Promise<T> onSuccess(final Consumer<T> consumer) {
         onResult(result -> result.onSuccess(consumer));
         return this;
@@ -247,7 +343,7 @@ public interface Promise<T> {
     CoreLogger logger();
 
     /**
-     * Set exception logger.
+     * Set exception logger. Exceptions thrown by callbacks registered on this instance are passed to the consumer.
      *
      * @param consumer Consumer for intercepted exceptions.
      * @return current {@link Promise} instance
@@ -269,7 +365,7 @@ public interface Promise<T> {
      * @return Created instance
      */
     static <T> Promise<T> ready(final Result<T> result) {
-        return Promise.<T>promise().resolve(result);
+        return ResolvedPromise.resolved(result);
     }
 
     /**
@@ -278,7 +374,7 @@ public interface Promise<T> {
      * @return Created instance
      */
     static <T> Promise<T> readyOk(final T result) {
-        return ready(Result.ok(result));
+        return ResolvedPromise.succeeded(result);
     }
 
     /**
@@ -287,7 +383,7 @@ public interface Promise<T> {
      * @return Created instance
      */
     static <T> Promise<T> readyFail(final Failure failure) {
-        return ready(Result.fail(failure));
+        return ResolvedPromise.failed(failure);
     }
 
     /**
@@ -310,8 +406,18 @@ public interface Promise<T> {
      */
     @SafeVarargs
     static <T> Promise<T> any(final Promise<T>... promises) {
-        return promise(result -> List.list(promises).apply(promise -> promise.onResult(result::resolve)
-                                                                             .onResult(v -> cancelAll(promises))));
+        return any(List.list(promises));
+    }
+
+    /**
+     * Create instance which will be resolved once any of the promises provided in the list will be resolved.
+     * Remaining promises are cancelled exactly once, upon resolution of the first promise.
+     *
+     * @param promises Input promises
+     * @return created instance
+     */
+    static <T> Promise<T> any(final List<Promise<T>> promises) {
+        return AnyCollector.anyOf(promises);
     }
 
     /**
@@ -327,6 +433,18 @@ public interface Promise<T> {
         return anySuccess(Result.fail(Errors.CANCELLED), promises);
     }
 
+    /**
+     * Create instance which will be resolved once any of the promises provided in the list will be resolved
+     * with successful result. If none of the promises will be resolved with successful result, then created
+     * instance will be resolved with {@link Errors#CANCELLED}.
+     *
+     * @param promises Input promises
+     * @return Created instance
+     */
+    static <T> Promise<T> anySuccess(final List<Promise<T>> promises) {
+        return anySuccess(Result.fail(Errors.CANCELLED), promises);
+    }
+
     /**
      * Create instance which will be resolved once any of the promises provided as a parameters will be resolved
      * with successful result. If none of the promises will be resolved with successful result, then created
@@ -336,15 +454,23 @@ public interface Promise<T> {
      * @param promises      Input promises
      * @return Created instance
      */
+    @SafeVarargs
     static <T> Promise<T> anySuccess(final Result<T> failureResult, final Promise<T>... promises) {
-        return Promise.<T>promise(anySuccess -> threshold(promises.length,
-                                                          (at) -> List.list(promises)
-                                                                      .apply(promise -> promise.onResult($ -> at.registerEvent())
-                                                                                               .onResult(res -> res.onSuccess(t -> {
-                                                                                                   anySuccess.resolve(res);
-                                                                                                   resolveAll(failureResult, promises);
-                                                                                               }))),
-                                                          () -> resolveAll(failureResult, promises)));
+        return anySuccess(failureResult, List.list(promises));
+    }
+
+    /**
+     * Create instance which will be resolved once any of the promises provided in the list will be resolved
+     * with successful result. Remaining promises are resolved with provided {@code failureResult} exactly once.
+     * If none of the promises will be resolved with successful result, then created instance will be resolved
+     * with provided {@code failureResult}.
+     *
+     * @param failureResult Result in case if no instances were resolved with success
+     * @param promises      Input promises
+     * @return Created instance
+     */
+    static <T> Promise<T> anySuccess(final Result<T> failureResult, final List<Promise<T>> promises) {
+        return AnyCollector.anySuccessOf(failureResult, promises);
     }
 
     /**
@@ -400,6 +526,17 @@ public interface Promise<T> {
         }
     }
 
+    /**
+     * Create instance which is resolved once all provided instances are resolved successfully. Resulting instance
+     * is resolved with failure as soon as any of provided instances is resolved with failure.
+     *
+     * @param promises Instances to wait for
+     * @return Created instance which is resolved with list of results in the same order as provided instances
+     */
+    static <T> Promise<List<T>> all(final List<Promise<T>> promises) {
+        return AllCollector.allOf(promises);
+    }
+
     static <T1> Promise<Tuple1<T1>> all(final Promise<T1> promise1) {
         return promise(promise -> threshold(Tuple1.size(),
                                             (at) -> promise1.onResult($ -> at.registerEvent()),
@@ -0,0 +1,89 @@
+package org.reactivetoolbox.core.async.impl;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.async.Promise;
+import org.reactivetoolbox.core.lang.List;
+import org.reactivetoolbox.core.lang.Result;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Collector of results of arbitrary number of {@link Promise} instances. Results are stored in the pre-sized array
+ * and single atomic counter tracks number of pending instances. Every input instance gets single small callback
+ * which knows index of the instance, so there are no nested callback chains regardless of number of inputs.
+ * <br>
+ * Resulting instance is resolved with failure as soon as any of input instances is resolved with failure.
+ */
+public final class AllCollector<T> {
+    private final Promise<List<T>> promise = Promise.promise();
+    private final Object[] values;
+    private final AtomicInteger remaining;
+
+    private AllCollector(final int size) {
+        values = new Object[size];
+        remaining = new AtomicInteger(size);
+    }
+
+    /**
+     * Create instance which is resolved once all provided instances are resolved.
+     *
+     * @param promises
+     *        Input instances
+     * @return created instance which is resolved with list of results in the order of input instances or with
+     * first failure
+     */
+    public static <T> Promise<List<T>> allOf(final List<Promise<T>> promises) {
+        if (promises.size() == 0) {
+            return Promise.readyOk(List.list());
+        }
+
+        final var collector = new AllCollector<T>(promises.size());
+
+        promises.applyN((index, promise) -> promise.onResult(collector.new Slot(index)));
+        return collector.promise;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void complete(final int index, final Result<T> result) {
+        result.onFailure(failure -> promise.resolve(Result.fail(failure)))
+              .onSuccess(value -> {
+                  values[index] = value;
+
+                  if (remaining.decrementAndGet() == 0) {
+                      promise.resolve(Result.ok((List<T>) List.list(values)));
+                  }
+              });
+    }
+
+    /**
+     * Callback attached to the single input instance.
+     */
+    private final class Slot implements Consumer<Result<T>> {
+        private final int index;
+
+        private Slot(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void accept(final Result<T> result) {
+            complete(index, result);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.reactivetoolbox.core.async.impl;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.async.Promise;
+import org.reactivetoolbox.core.lang.List;
+import org.reactivetoolbox.core.lang.Result;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Collector which resolves resulting {@link Promise} with the first suitable result of arbitrary number of input
+ * instances. Single atomic flag selects the winner, so remaining input instances are cancelled (or resolved) exactly
+ * once and callbacks triggered by their resolution return immediately. Total amount of work is linear in the number
+ * of input instances.
+ */
+public final class AnyCollector<T> implements Consumer<Result<T>> {
+    private final Promise<T> promise = Promise.promise();
+    private final List<Promise<T>> promises;
+    private final Result<T> failureResult;
+    private final AtomicBoolean done = new AtomicBoolean();
+    private final AtomicInteger remaining;
+
+    private AnyCollector(final List<Promise<T>> promises, final Result<T> failureResult) {
+        this.promises = promises;
+        this.failureResult = failureResult;
+        this.remaining = new AtomicInteger(promises.size());
+    }
+
+    /**
+     * Create instance which is resolved with the first result of provided instances. Remaining instances are
+     * cancelled. If list of input instances is empty, then created instance is never resolved.
+     *
+     * @param promises
+     *        Input instances
+     * @return created instance
+     */
+    public static <T> Promise<T> anyOf(final List<Promise<T>> promises) {
+        final var collector = new AnyCollector<T>(promises, null);
+
+        promises.apply(promise -> promise.onResult(collector));
+        return collector.promise;
+    }
+
+    /**
+     * Create instance which is resolved with the first successful result of provided instances. Remaining instances
+     * are resolved with {@code failureResult}. If none of the input instances is resolved with success, created
+     * instance is resolved with {@code failureResult}.
+     *
+     * @param failureResult
+     *        Result used if none of instances is resolved with success
+     * @param promises
+     *        Input instances
+     * @return created instance
+     */
+    public static <T> Promise<T> anySuccessOf(final Result<T> failureResult, final List<Promise<T>> promises) {
+        if (promises.size() == 0) {
+            return Promise.ready(failureResult);
+        }
+
+        final var collector = new AnyCollector<T>(promises, failureResult);
+
+        promises.apply(promise -> promise.onResult(collector::success));
+        return collector.promise;
+    }
+
+    @Override
+    public void accept(final Result<T> result) {
+        if (done.compareAndSet(false, true)) {
+            promise.resolve(result);
+            promises.apply(Promise::cancel);
+        }
+    }
+
+    private void success(final Result<T> result) {
+        if (done.get()) {
+            return;
+        }
+
+        result.onSuccess(value -> {
+            if (done.compareAndSet(false, true)) {
+                promise.resolve(result);
+                promises.apply(input -> input.resolve(failureResult));
+            }
+        }).onFailure(failure -> {
+            if (remaining.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+                promise.resolve(failureResult);
+            }
+        });
+    }
+}
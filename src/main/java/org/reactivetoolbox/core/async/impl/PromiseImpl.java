@@ -20,33 +20,61 @@ import org.reactivetoolbox.core.async.Promise;
 import org.reactivetoolbox.core.lang.Result;
 import org.reactivetoolbox.core.log.CoreLogger;
 import org.reactivetoolbox.core.meta.AppMetaRepository;
+import org.reactivetoolbox.core.scheduler.BlockingTaskScheduler;
 import org.reactivetoolbox.core.scheduler.TaskScheduler;
 import org.reactivetoolbox.core.scheduler.Timeout;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
 import java.util.StringJoiner;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicMarkableReference;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Implementation of {@link Promise}
+ * <br>
+ * Entire state of the instance is kept in single field, which is updated with CAS. Field contains either
+ * <code>null</code> (pending instance without callbacks), single callback, stack of callbacks or, once instance is
+ * resolved, the {@link Result}. So, instance with single callback does not allocate anything besides instance itself
+ * and callback and none of the operations acquires locks. Callbacks are invoked in the order of registration.
+ * <br>
+ * Threads waiting in {@link #syncWait()} are parked and unparked once all callbacks are invoked.
+ * <br>
+ * Callbacks often resolve other instances (this is how {@link #map(org.reactivetoolbox.core.lang.Functions.FN1)}
+ * and similar methods work), so resolution of the head of long chain is naturally recursive. Resolution started with
+ * {@link #resolveTrampolined(Result)} keeps stack depth bounded: resolutions nested deeper than
+ * {@link #MAX_INLINE_DEPTH} levels are not invoked immediately, but put into thread-local queue, which is drained by
+ * the outermost resolution in the same thread. Threads which wait for resolution from inside such a callback drain
+ * the queue before parking, so they never wait for work which only they can perform. Plain {@link #resolve(Result)}
+ * invokes all callbacks before return.
  */
 public class PromiseImpl<T> implements Promise<T> {
-    private final AtomicMarkableReference<Result<T>> value = new AtomicMarkableReference<>(null, false);
-    private final BlockingQueue<Consumer<Result<T>>> thenActions = new LinkedBlockingQueue<>();
-    private final CountDownLatch actionsHandled = new CountDownLatch(1);
-    private final AtomicReference<Consumer<Throwable>> exceptionLogger = new AtomicReference<>(e -> logger().debug("Exception while applying handlers", e));
+    private static final VarHandle STATE;
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int MAX_INLINE_DEPTH = 64;
+    private static final ThreadLocal<Trampoline> TRAMPOLINE = ThreadLocal.withInitial(Trampoline::new);
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(PromiseImpl.class, "state", Object.class);
+        } catch (final ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile Object state;
+    private volatile boolean handled = false;
+    private volatile Consumer<Throwable> exceptionCollector;
 
     public PromiseImpl() {
     }
 
     @Override
     public Promise<T> exceptionCollector(final Consumer<Throwable> consumer) {
-        exceptionLogger.set(consumer);
+        exceptionCollector = consumer;
         return this;
     }
 
@@ -55,32 +83,57 @@ public class PromiseImpl<T> implements Promise<T> {
      */
     @Override
     public Promise<T> resolve(final Result<T> result) {
-        if (value.compareAndSet(null, result, false, true)) {
-            thenActions.forEach(action -> {
-                try {
-                    action.accept(value.getReference());
-                } catch (final Throwable t) {
-                    exceptionLogger.get().accept(t);
+        while (true) {
+            final var current = state;
+
+            if (current instanceof Result) {
+                return this;
+            }
+
+            if (STATE.compareAndSet(this, current, result)) {
+                if (current == null) {
+                    handled = true;
+                } else {
+                    final var trampoline = TRAMPOLINE.get();
+
+                    if (trampoline.active) {
+                        trampoline.run(() -> runCallbacks(current, result));
+                    } else {
+                        runCallbacks(current, result);
+                    }
                 }
-            });
-            actionsHandled.countDown();
+                return this;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Promise<T> resolveTrampolined(final Result<T> result) {
+        final var trampoline = TRAMPOLINE.get();
+
+        if (trampoline.active) {
+            return resolve(result);
+        }
+
+        trampoline.active = true;
+        try {
+            return resolve(result);
+        } finally {
+            trampoline.active = false;
         }
-        return this;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
+    @SuppressWarnings("unchecked")
     public Promise<T> onResult(final Consumer<Result<T>> action) {
-        if (value.isMarked()) {
-            try {
-                action.accept(value.getReference());
-            } catch (final Throwable t) {
-                exceptionLogger.get().accept(t);
-            }
-        } else {
-            thenActions.offer(action);
+        if (!push(action)) {
+            run(action, (Result<T>) state);
         }
         return this;
     }
@@ -90,12 +143,7 @@ public class PromiseImpl<T> implements Promise<T> {
      */
     @Override
     public Promise<T> syncWait() {
-        try {
-            actionsHandled.await();
-        } catch (final InterruptedException e) {
-            logger().debug("Exception in syncWait()", e);
-        }
-        return this;
+        return await(Long.MAX_VALUE);
     }
 
     /**
@@ -103,14 +151,206 @@ public class PromiseImpl<T> implements Promise<T> {
      */
     @Override
     public Promise<T> syncWait(final Timeout timeout) {
-        try {
-            actionsHandled.await(timeout.timeout(), TimeUnit.MILLISECONDS);
-        } catch (final InterruptedException e) {
-            logger().debug("Exception in syncWait(timeout)", e);
+        return await(System.nanoTime() + timeout.nanos());
+    }
+
+    private Promise<T> await(final long deadline) {
+        Waiter waiter = null;
+
+        while (!handled) {
+            if (Thread.interrupted()) {
+                logger().debug("Interrupted in syncWait()");
+                return this;
+            }
+
+            if (waiter == null && !(state instanceof Result)) {
+                waiter = new Waiter(Thread.currentThread());
+
+                if (!push(waiter)) {
+                    waiter = null;
+                }
+                continue;
+            }
+
+            if (TRAMPOLINE.get().drain()) {
+                // Resolution of this instance could be deferred by the current thread
+                continue;
+            }
+
+            final long remaining = deadline == Long.MAX_VALUE ? Long.MAX_VALUE : deadline - System.nanoTime();
+
+            if (remaining <= 0) {
+                return this;
+            }
+
+            if (waiter == null) {
+                // Instance is resolved, but callbacks are still running and resolving thread does not know about us
+                LockSupport.parkNanos(this, Math.min(remaining, POLL_INTERVAL_NANOS));
+            } else if (remaining == Long.MAX_VALUE) {
+                LockSupport.park(this);
+            } else {
+                LockSupport.parkNanos(this, remaining);
+            }
         }
         return this;
     }
 
+    /**
+     * Add callback to the stack of pending callbacks.
+     *
+     * @return <code>false</code> if instance is already resolved and callback is not added
+     */
+    private boolean push(final Object action) {
+        while (true) {
+            final var current = state;
+
+            if (current instanceof Result) {
+                return false;
+            }
+
+            final var next = current == null ? action : new Node(action, toNode(current));
+
+            if (STATE.compareAndSet(this, current, next)) {
+                return true;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runCallbacks(final Object callbacks, final Result<T> result) {
+        if (callbacks == null) {
+            handled = true;
+            return;
+        }
+
+        if (!(callbacks instanceof Node)) {
+            run((Consumer<Result<T>>) callbacks, result);
+            handled = true;
+            unpark(callbacks);
+            return;
+        }
+
+        // Callbacks are stored in reverse order of registration
+        Node reversed = null;
+        Node node = (Node) callbacks;
+
+        while (node != null) {
+            final var next = node.next;
+            node.next = reversed;
+            reversed = node;
+            node = next;
+        }
+
+        for (node = reversed; node != null; node = node.next) {
+            run((Consumer<Result<T>>) node.action, result);
+        }
+
+        handled = true;
+
+        for (node = reversed; node != null; node = node.next) {
+            unpark(node.action);
+        }
+    }
+
+    private void run(final Consumer<Result<T>> action, final Result<T> result) {
+        try {
+            action.accept(result);
+        } catch (final Throwable t) {
+            final var collector = exceptionCollector;
+
+            if (collector == null) {
+                logger().debug("Exception while applying handlers", t);
+            } else {
+                collector.accept(t);
+            }
+        }
+    }
+
+    private static void unpark(final Object action) {
+        if (action instanceof Waiter) {
+            LockSupport.unpark(((Waiter) action).thread);
+        }
+    }
+
+    private static Node toNode(final Object current) {
+        return current instanceof Node ? (Node) current : new Node(current, null);
+    }
+
+    /**
+     * Per-thread state of nested resolutions.
+     */
+    private static final class Trampoline {
+        private final ArrayDeque<Runnable> deferred = new ArrayDeque<>();
+        private boolean active;
+        private int depth;
+
+        private void run(final Runnable resolution) {
+            if (depth >= MAX_INLINE_DEPTH) {
+                deferred.add(resolution);
+                return;
+            }
+
+            invoke(resolution);
+
+            if (depth == 0) {
+                drain();
+            }
+        }
+
+        /**
+         * Invoke deferred resolutions.
+         *
+         * @return <code>true</code> if at least one resolution was invoked
+         */
+        private boolean drain() {
+            boolean drained = false;
+            Runnable next;
+
+            while ((next = deferred.poll()) != null) {
+                invoke(next);
+                drained = true;
+            }
+            return drained;
+        }
+
+        private void invoke(final Runnable resolution) {
+            depth++;
+            try {
+                resolution.run();
+            } finally {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Element of the callback stack.
+     */
+    private static final class Node {
+        private final Object action;
+        private Node next;
+
+        private Node(final Object action, final Node next) {
+            this.action = action;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Callback registered by the thread waiting for resolution. Thread is unparked after all callbacks are invoked.
+     */
+    private static final class Waiter implements Consumer<Object> {
+        private final Thread thread;
+
+        private Waiter(final Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        public void accept(final Object result) {
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -126,10 +366,33 @@ public class PromiseImpl<T> implements Promise<T> {
         return this;
     }
 
+    @Override
+    public Promise<T> asyncWithDeadline(final Timeout deadline, final Consumer<Promise<T>> task) {
+        return asyncWithDeadline(SingletonHolder.scheduler(), deadline, task);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br>
+     * Timeout task is cancelled once instance is resolved, so it does not remain in scheduler until timeout expiration.
+     */
+    @Override
+    public Promise<T> when(final Timeout timeout, final Supplier<Result<T>> timeoutResultSupplier) {
+        final var handle = SingletonHolder.scheduler().schedule(timeout, () -> resolve(timeoutResultSupplier.get()));
+
+        onResult(result -> handle.cancel());
+        return this;
+    }
+
+    @Override
+    public Promise<T> asyncBlocking(final Consumer<Promise<T>> task) {
+        return async(SingletonHolder.blockingScheduler(), task);
+    }
+
     @Override
     public String toString() {
         return new StringJoiner(", ", "Promise(", ")")
-                .add(value.isMarked() ? value.getReference().toString() : "<pending>")
+                .add(state instanceof Result ? state.toString() : "<pending>")
                 .toString();
     }
 
@@ -145,8 +408,17 @@ public class PromiseImpl<T> implements Promise<T> {
             return SCHEDULER;
         }
 
+        static BlockingTaskScheduler blockingScheduler() {
+            return BlockingHolder.BLOCKING_SCHEDULER;
+        }
+
         static CoreLogger logger() {
             return SCHEDULER.logger();
         }
     }
+
+    private static final class BlockingHolder {
+        private static final BlockingTaskScheduler BLOCKING_SCHEDULER =
+                AppMetaRepository.instance().get(BlockingTaskScheduler.class);
+    }
 }
@@ -0,0 +1,188 @@
+package org.reactivetoolbox.core.async.impl;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.async.Promise;
+import org.reactivetoolbox.core.lang.Failure;
+import org.reactivetoolbox.core.lang.Functions.FN1;
+import org.reactivetoolbox.core.lang.Result;
+import org.reactivetoolbox.core.log.CoreLogger;
+import org.reactivetoolbox.core.meta.AppMetaRepository;
+import org.reactivetoolbox.core.scheduler.BlockingTaskScheduler;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+import org.reactivetoolbox.core.scheduler.Timeout;
+
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link Promise} which is resolved at creation. Since value is already known, callbacks and transformations are
+ * executed immediately in the calling thread without any synchronization. Attempts to resolve instance are ignored,
+ * as for any other resolved {@link Promise}.
+ * <br>
+ * Instances are never shared, since exception collector is stored in the instance.
+ */
+public final class ResolvedPromise<T> implements Promise<T> {
+    private final Result<T> result;
+    private volatile Consumer<Throwable> exceptionCollector;
+
+    private ResolvedPromise(final Result<T> result) {
+        this.result = result;
+    }
+
+    public static <T> ResolvedPromise<T> resolved(final Result<T> result) {
+        return new ResolvedPromise<>(result);
+    }
+
+    public static <T> ResolvedPromise<T> succeeded(final T value) {
+        return resolved(Result.ok(value));
+    }
+
+    public static <T> ResolvedPromise<T> failed(final Failure failure) {
+        return resolved(Result.fail(failure));
+    }
+
+    @Override
+    public Promise<T> onResult(final Consumer<Result<T>> action) {
+        try {
+            action.accept(result);
+        } catch (final Throwable t) {
+            collect(t);
+        }
+        return this;
+    }
+
+    @Override
+    public Promise<T> resolve(final Result<T> result) {
+        return this;
+    }
+
+    @Override
+    public Promise<T> syncWait() {
+        return this;
+    }
+
+    @Override
+    public Promise<T> syncWait(final Timeout timeout) {
+        return this;
+    }
+
+    @Override
+    public Promise<T> async(final Consumer<Promise<T>> task) {
+        return async(SingletonHolder.scheduler(), task);
+    }
+
+    @Override
+    public Promise<T> async(final Timeout timeout, final Consumer<Promise<T>> task) {
+        SingletonHolder.scheduler().submit(timeout, () -> task.accept(this));
+        return this;
+    }
+
+    @Override
+    public Promise<T> asyncWithDeadline(final Timeout deadline, final Consumer<Promise<T>> task) {
+        return asyncWithDeadline(SingletonHolder.scheduler(), deadline, task);
+    }
+
+    @Override
+    public Promise<T> asyncBlocking(final Consumer<Promise<T>> task) {
+        return async(BlockingHolder.BLOCKING_SCHEDULER, task);
+    }
+
+    /**
+     * Instance is already resolved, so timeout is never used.
+     */
+    @Override
+    public Promise<T> when(final Timeout timeout, final Supplier<Result<T>> timeoutResultSupplier) {
+        return this;
+    }
+
+    @Override
+    public <R> Promise<R> chainMap(final FN1<Promise<R>, T> mapper) {
+        try {
+            return result.fold(ResolvedPromise::failed, mapper::apply);
+        } catch (final Throwable t) {
+            collect(t);
+            return Promise.promise();
+        }
+    }
+
+    @Override
+    public <R> Promise<R> map(final FN1<R, T> mapper) {
+        try {
+            return resolved(result.map(mapper));
+        } catch (final Throwable t) {
+            collect(t);
+            return Promise.promise();
+        }
+    }
+
+    @Override
+    public <R> Promise<R> flatMap(final FN1<Result<R>, T> mapper) {
+        try {
+            return resolved(result.flatMap(mapper));
+        } catch (final Throwable t) {
+            collect(t);
+            return Promise.promise();
+        }
+    }
+
+    @Override
+    public CoreLogger logger() {
+        return SingletonHolder.logger();
+    }
+
+    @Override
+    public Promise<T> exceptionCollector(final Consumer<Throwable> consumer) {
+        exceptionCollector = consumer;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", "Promise(", ")")
+                .add(result.toString())
+                .toString();
+    }
+
+    private void collect(final Throwable t) {
+        final var collector = exceptionCollector;
+
+        if (collector == null) {
+            logger().debug("Exception while applying handlers", t);
+        } else {
+            collector.accept(t);
+        }
+    }
+
+    private static final class SingletonHolder {
+        private static final TaskScheduler SCHEDULER = AppMetaRepository.instance().get(TaskScheduler.class);
+
+        static TaskScheduler scheduler() {
+            return SCHEDULER;
+        }
+
+        static CoreLogger logger() {
+            return SCHEDULER.logger();
+        }
+    }
+
+    private static final class BlockingHolder {
+        private static final BlockingTaskScheduler BLOCKING_SCHEDULER =
+                AppMetaRepository.instance().get(BlockingTaskScheduler.class);
+    }
+}
@@ -0,0 +1,37 @@
+package org.reactivetoolbox.core.lang;
+
+/*
+ * Copyright (c) 2017-2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Type with single value. Used where some type is required, but there is no meaningful value to return, for
+ * example as a type of {@link org.reactivetoolbox.core.async.Promise} which only signals completion.
+ */
+public final class Unit {
+    private static final Unit UNIT = new Unit();
+
+    private Unit() {
+    }
+
+    public static Unit unit() {
+        return UNIT;
+    }
+
+    @Override
+    public String toString() {
+        return "()";
+    }
+}
@@ -3,6 +3,8 @@ package org.reactivetoolbox.core.lang.support;
 import org.reactivetoolbox.core.Errors;
 import org.reactivetoolbox.core.lang.Result;
 import org.reactivetoolbox.core.lang.Suppliers;
+import org.reactivetoolbox.core.meta.AppMetaRepository;
+import org.reactivetoolbox.core.scheduler.CachedClock;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
@@ -93,7 +95,7 @@ public final class KSUID implements Comparable<KSUID> {
 
     private static String generate() {
         final var decoded = ByteBuffer.wrap(new byte[DECODED_LENGTH]);
-        final var utc = ZonedDateTime.now(UTC).toInstant().toEpochMilli() / 1000;
+        final var utc = ClockHolder.clock().millis() / 1000;
         final var timestamp = (int) (utc - EPOCH);
 
         decoded.putInt(timestamp);
@@ -119,6 +121,14 @@ public final class KSUID implements Comparable<KSUID> {
         return representation.compareTo(o.encoded());
     }
 
+    private static final class ClockHolder {
+        private static final CachedClock CLOCK = AppMetaRepository.instance().get(CachedClock.class);
+
+        static CachedClock clock() {
+            return CLOCK;
+        }
+    }
+
     private static class Internals {
         private final int timestamp;
         private final ZonedDateTime dateTime;
@@ -17,7 +17,11 @@ package org.reactivetoolbox.core.meta;
 
 import org.reactivetoolbox.core.log.CoreLogger;
 import org.reactivetoolbox.core.log.impl.JdkLogger;
+import org.reactivetoolbox.core.scheduler.BlockingTaskScheduler;
+import org.reactivetoolbox.core.scheduler.CachedClock;
+import org.reactivetoolbox.core.scheduler.SchedulerConfig;
 import org.reactivetoolbox.core.scheduler.TaskScheduler;
+import org.reactivetoolbox.core.scheduler.impl.CpuLimits;
 
 import java.time.Clock;
 import java.util.Map;
@@ -83,10 +87,14 @@ public final class AppMetaRepository {
 
         //Pre-load default configuration for use by built-in classes and for general purpose use
         static {
-            final int workerSchedulerSize = Runtime.getRuntime().availableProcessors();
+            final int workerSchedulerSize = CpuLimits.availableProcessors();
+            final var clock = CachedClock.cachedClock();
 
-            INSTANCE.put(TaskScheduler.class, TaskScheduler.with(workerSchedulerSize));
+            INSTANCE.put(TaskScheduler.class, TaskScheduler.with(SchedulerConfig.config(workerSchedulerSize)
+                                                                                .withClock(clock)));
+            INSTANCE.put(BlockingTaskScheduler.class, BlockingTaskScheduler.threadPerTask());
             INSTANCE.put(CoreLogger.class, new JdkLogger());
+            INSTANCE.put(CachedClock.class, clock);
             INSTANCE.put(Clock.class, Clock.systemUTC());
         }
     }
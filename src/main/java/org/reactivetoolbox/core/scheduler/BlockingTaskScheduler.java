@@ -0,0 +1,38 @@
+package org.reactivetoolbox.core.scheduler;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.scheduler.impl.ThreadPerTaskScheduler;
+
+/**
+ * Task scheduler for long living and blocking tasks, like JDBC calls or file I/O. Unlike general purpose
+ * {@link TaskScheduler}, every submitted task gets its own thread, so blocking tasks do not delay each other
+ * and do not starve scheduler used for short non-blocking tasks.
+ * <br>
+ * When running on Java 21 or later, tasks are executed by virtual threads, so hundreds of thousands of concurrent
+ * blocking operations cost only memory. On earlier Java versions pooled platform threads are used instead.
+ */
+public interface BlockingTaskScheduler extends TaskScheduler {
+    /**
+     * Create scheduler which runs every submitted task on separate thread.
+     *
+     * @return created scheduler
+     */
+    static BlockingTaskScheduler threadPerTask() {
+        return ThreadPerTaskScheduler.threadPerTask();
+    }
+}
@@ -0,0 +1,145 @@
+package org.reactivetoolbox.core.scheduler;
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Coarse-grained clock which caches current time. Time is updated by {@link #tick()}, so reading time costs
+ * single volatile load instead of the system call. Clock passed to {@link SchedulerConfig#withClock(CachedClock)}
+ * is ticked by worker threads of the scheduler at the start of every processing round, so values returned by the
+ * clock may lag behind actual time by the duration of the round. Once worker thread has no work to do, it marks
+ * cached time as outdated with {@link #invalidate()} and until next tick clock reads system time directly.
+ * <br>
+ * Clock provides two views of the same point in time: wall clock time ({@link #millis()}, {@link #instant()})
+ * and monotonic time ({@link #nanoTime()}), compatible with {@link System#nanoTime()}.
+ */
+public final class CachedClock extends Clock {
+    private volatile long millis;
+    private volatile long nanos;
+    private volatile boolean valid;
+
+    private CachedClock() {
+        tick();
+    }
+
+    /**
+     * Create clock which is updated only by explicit invocation of {@link #tick()}.
+     *
+     * @return created clock
+     */
+    public static CachedClock cachedClock() {
+        return new CachedClock();
+    }
+
+    /**
+     * Update cached time.
+     */
+    public void tick() {
+        tick(System.nanoTime());
+    }
+
+    /**
+     * Update cached time using already obtained monotonic time.
+     *
+     * @param nanoTime
+     *        Current time as returned by {@link System#nanoTime()}
+     */
+    public void tick(final long nanoTime) {
+        nanos = nanoTime;
+        millis = System.currentTimeMillis();
+        valid = true;
+    }
+
+    /**
+     * Mark cached time as outdated. Until next {@link #tick()} clock returns actual system time.
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Cached monotonic time.
+     *
+     * @return time as returned by {@link System#nanoTime()} at the moment of the last update
+     */
+    public long nanoTime() {
+        return valid ? nanos : System.nanoTime();
+    }
+
+    @Override
+    public long millis() {
+        return valid ? millis : System.currentTimeMillis();
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis());
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    /**
+     * Get view of this clock in specified time zone. View shares cached time with this clock.
+     *
+     * @param zoneId
+     *        Time zone
+     * @return this clock if zone is UTC or zoned view otherwise
+     */
+    @Override
+    public Clock withZone(final ZoneId zoneId) {
+        if (ZoneOffset.UTC.equals(zoneId)) {
+            return this;
+        }
+        return new ZonedView(this, zoneId);
+    }
+
+    private static final class ZonedView extends Clock {
+        private final CachedClock clock;
+        private final ZoneId zoneId;
+
+        private ZonedView(final CachedClock clock, final ZoneId zoneId) {
+            this.clock = clock;
+            this.zoneId = zoneId;
+        }
+
+        @Override
+        public long millis() {
+            return clock.millis();
+        }
+
+        @Override
+        public Instant instant() {
+            return clock.instant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zoneId;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zoneId) {
+            return clock.withZone(zoneId);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.reactivetoolbox.core.scheduler;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Handle of scheduled task which can be used to cancel further executions of the task.
+ */
+public interface Cancellable {
+    /**
+     * Cancel task. Execution which is already in progress is not interrupted.
+     *
+     * @return <code>true</code> if task was cancelled by this invocation and <code>false</code> if it was already
+     * cancelled before
+     */
+    boolean cancel();
+
+    /**
+     * Check if task is cancelled.
+     *
+     * @return <code>true</code> if task is cancelled
+     */
+    boolean isCancelled();
+}
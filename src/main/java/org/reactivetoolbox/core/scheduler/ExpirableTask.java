@@ -0,0 +1,66 @@
+package org.reactivetoolbox.core.scheduler;
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Task which is useless once its deadline passes, for example because caller waiting for its result has already
+ * timed out. If such task is picked up for execution after its deadline, scheduler does not execute it and invokes
+ * {@link #expired()} instead, so capacity of overloaded scheduler is not wasted on obsolete work. Deadline is checked
+ * only before the first execution, task which is already started is executed until it is done.
+ */
+public interface ExpirableTask extends RunnablePredicate {
+    /**
+     * Point in time after which task should not be executed.
+     *
+     * @return deadline, as returned by {@link System#nanoTime()}
+     */
+    long deadline();
+
+    /**
+     * Invoked instead of task execution once deadline is passed.
+     */
+    void expired();
+
+    /**
+     * Create task with specified deadline.
+     *
+     * @param deadline
+     *        Point in time (as returned by {@link System#nanoTime()}) after which task should not be executed
+     * @param predicate
+     *        Task to execute
+     * @param onExpired
+     *        Action invoked if task is discarded
+     * @return created task
+     */
+    static ExpirableTask expirable(final long deadline, final RunnablePredicate predicate, final Runnable onExpired) {
+        return new ExpirableTask() {
+            @Override
+            public long deadline() {
+                return deadline;
+            }
+
+            @Override
+            public void expired() {
+                onExpired.run();
+            }
+
+            @Override
+            public boolean isDone(final long nanoTime) {
+                return predicate.isDone(nanoTime);
+            }
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package org.reactivetoolbox.core.scheduler;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.scheduler.impl.DeficitRoundRobinScheduler;
+
+/**
+ * Task scheduler which shares worker threads between several tenants. Every task is submitted with tenant key and
+ * each tenant has its own queue. Worker threads serve tenant queues in deficit round-robin order, so during each
+ * round every tenant with pending tasks gets number of task executions proportional to its weight. Tenant which
+ * floods scheduler with tasks delays only its own tasks, while remaining tenants still get their share.
+ * <br>
+ * Tasks submitted without tenant key belong to the default tenant. Tenants are created on first use with weight 1.
+ */
+public interface FairShareTaskScheduler extends TaskScheduler {
+    /**
+     * Set weight of the tenant.
+     *
+     * @param tenant
+     *        Tenant key
+     * @param weight
+     *        Number of task executions tenant gets during each round, must be positive
+     * @return this instance for fluent call chaining.
+     */
+    FairShareTaskScheduler weight(final Object tenant, final int weight);
+
+    /**
+     * Submit task on behalf of specified tenant.
+     *
+     * @param tenant
+     *        Tenant key
+     * @param predicate
+     *        Runnable predicate to execute
+     * @return this instance for fluent call chaining.
+     */
+    FairShareTaskScheduler submit(final Object tenant, final RunnablePredicate predicate);
+
+    /**
+     * Get scheduler which submits all tasks on behalf of specified tenant. Returned scheduler shares worker threads
+     * with this scheduler, so its shutdown methods shut down this scheduler as well.
+     *
+     * @param tenant
+     *        Tenant key
+     * @return scheduler bound to tenant
+     */
+    TaskScheduler tenant(final Object tenant);
+
+    /**
+     * Create scheduler with specified configuration. All tenants share single pool of worker threads.
+     *
+     * @param config
+     *        Worker thread pool configuration
+     * @return created scheduler
+     */
+    static FairShareTaskScheduler with(final SchedulerConfig config) {
+        return DeficitRoundRobinScheduler.with(config);
+    }
+}
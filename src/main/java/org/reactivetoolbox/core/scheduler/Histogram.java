@@ -0,0 +1,155 @@
+package org.reactivetoolbox.core.scheduler;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.StringJoiner;
+
+/**
+ * Immutable snapshot of latency histogram. Histogram uses log-linear buckets: every power of two range is split
+ * into {@value #SUB_BUCKETS} equal buckets, so relative error of reported values does not exceed 12.5% while entire
+ * range of <code>long</code> values is covered by fixed small number of buckets.
+ */
+public final class Histogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    public static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private static final Histogram EMPTY = new Histogram(new long[BUCKETS], 0, 0, 0);
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    private Histogram(final long[] counts, final long count, final long sum, final long max) {
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * Create snapshot from bucket counts.
+     *
+     * @param counts
+     *        Bucket counts, indexed as returned by {@link #bucketOf(long)}
+     * @param sum
+     *        Sum of all recorded values
+     * @param max
+     *        Maximal recorded value
+     * @return created snapshot
+     */
+    public static Histogram histogram(final long[] counts, final long sum, final long max) {
+        long count = 0;
+
+        for (final long value : counts) {
+            count += value;
+        }
+        return new Histogram(counts.clone(), count, sum, max);
+    }
+
+    public static Histogram empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Get index of the bucket for specified value. Negative values are counted as zero.
+     *
+     * @param value
+     *        Value to locate
+     * @return bucket index
+     */
+    public static int bucketOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(value, 0);
+        }
+
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Get largest value which belongs to specified bucket.
+     *
+     * @param bucket
+     *        Bucket index
+     * @return upper bound of bucket
+     */
+    public static long upperBoundOf(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        final int shift = bucket / SUB_BUCKETS - 1;
+        final long base = SUB_BUCKETS + (bucket % SUB_BUCKETS);
+
+        final long bound = (base + 1) << shift;
+
+        return bound <= 0 ? Long.MAX_VALUE : bound - 1;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public long mean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * Get value at specified percentile. Returned value is upper bound of the bucket which contains requested
+     * percentile, but not greater than maximal recorded value.
+     *
+     * @param percentile
+     *        Percentile in range 0.0 - 100.0
+     * @return value at percentile or 0 if histogram is empty
+     */
+    public long percentile(final double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        final long threshold = Math.max(1, (long) Math.ceil(count * Math.min(percentile, 100.0) / 100.0));
+        long accumulated = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            accumulated += counts[i];
+
+            if (accumulated >= threshold) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", "Histogram(", ")")
+                .add("count=" + count)
+                .add("mean=" + mean())
+                .add("p50=" + percentile(50))
+                .add("p99=" + percentile(99))
+                .add("max=" + max)
+                .toString();
+    }
+}
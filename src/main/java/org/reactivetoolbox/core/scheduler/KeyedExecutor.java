@@ -0,0 +1,54 @@
+package org.reactivetoolbox.core.scheduler;
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.scheduler.impl.SerialKeyedExecutor;
+
+/**
+ * Executor which runs tasks submitted with the same key one by one, in the order of submission, while tasks with
+ * different keys run in parallel on worker threads of the underlying {@link TaskScheduler}.
+ */
+public interface KeyedExecutor {
+    /**
+     * Submit task for execution after all tasks previously submitted with the same key are finished.
+     *
+     * @param key
+     *        Key which identifies sequence of tasks
+     * @param task
+     *        Task to execute
+     * @return this instance for fluent call chaining.
+     */
+    KeyedExecutor submit(final Object key, final Runnable task);
+
+    /**
+     * Number of keys which have pending or executing tasks. State of the key is removed once it has no tasks left,
+     * so memory usage does not depend on the number of idle keys.
+     *
+     * @return number of active keys
+     */
+    int activeKeys();
+
+    /**
+     * Create executor which runs tasks on specified scheduler.
+     *
+     * @param scheduler
+     *        Scheduler which executes tasks
+     * @return created executor
+     */
+    static KeyedExecutor keyed(final TaskScheduler scheduler) {
+        return SerialKeyedExecutor.serial(scheduler);
+    }
+}
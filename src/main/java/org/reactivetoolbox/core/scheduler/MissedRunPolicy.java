@@ -0,0 +1,34 @@
+package org.reactivetoolbox.core.scheduler;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Policy applied to periodic tasks scheduled at fixed rate when one or more runs are missed, for example because
+ * previous run took longer than period or worker thread was busy.
+ *
+ * @see TaskScheduler#scheduleAtFixedRate(Timeout, Timeout, MissedRunPolicy, Runnable)
+ */
+public enum MissedRunPolicy {
+    /**
+     * Execute all missed runs back to back until schedule is caught up.
+     */
+    CATCH_UP,
+    /**
+     * Skip missed runs and continue with the next run which is still ahead according to the original schedule.
+     */
+    SKIP
+}
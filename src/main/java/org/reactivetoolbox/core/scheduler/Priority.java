@@ -0,0 +1,48 @@
+package org.reactivetoolbox.core.scheduler;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.reactivetoolbox.core.scheduler.Timeout.timeout;
+
+/**
+ * Priority class of task. In deadline scheduling mode every priority class is translated into relative deadline
+ * of the task, so tasks of lower priority still get executed once their deadline becomes the nearest one.
+ *
+ * @see SchedulerConfig#withDeadlineScheduling()
+ * @see TaskScheduler#submit(Priority, RunnablePredicate)
+ */
+public enum Priority {
+    HIGH(timeout(1).millis()),
+    NORMAL(timeout(100).millis()),
+    LOW(timeout(10).seconds());
+
+    private final Timeout deadline;
+
+    Priority(final Timeout deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Relative deadline of tasks with this priority. Tasks submitted without explicit deadline or priority get
+     * deadline of {@link #NORMAL} priority.
+     *
+     * @return relative deadline
+     */
+    public Timeout deadline() {
+        return deadline;
+    }
+}
@@ -0,0 +1,135 @@
+package org.reactivetoolbox.core.scheduler;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.StringJoiner;
+
+/**
+ * Snapshot of metrics of single scheduler worker. All latencies are in nanoseconds.
+ */
+public final class ProcessorMetrics {
+    private final int queueDepth;
+    private final long submitted;
+    private final long completed;
+    private final long resubmitted;
+    private final long timersFired;
+    private final long shed;
+    private final Histogram queueLatency;
+    private final Histogram executionTime;
+    private final Histogram timerLateness;
+
+    private ProcessorMetrics(final int queueDepth, final long submitted, final long completed, final long resubmitted,
+                             final long timersFired, final long shed, final Histogram queueLatency,
+                             final Histogram executionTime, final Histogram timerLateness) {
+        this.queueDepth = queueDepth;
+        this.submitted = submitted;
+        this.completed = completed;
+        this.resubmitted = resubmitted;
+        this.timersFired = timersFired;
+        this.shed = shed;
+        this.queueLatency = queueLatency;
+        this.executionTime = executionTime;
+        this.timerLateness = timerLateness;
+    }
+
+    public static ProcessorMetrics processorMetrics(final int queueDepth, final long submitted, final long completed,
+                                                    final long resubmitted, final long timersFired, final long shed,
+                                                    final Histogram queueLatency, final Histogram executionTime,
+                                                    final Histogram timerLateness) {
+        return new ProcessorMetrics(queueDepth, submitted, completed, resubmitted, timersFired, shed,
+                                    queueLatency, executionTime, timerLateness);
+    }
+
+    /**
+     * Number of pending tasks at the moment of snapshot creation.
+     */
+    public int queueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Number of submitted tasks.
+     */
+    public long submitted() {
+        return submitted;
+    }
+
+    /**
+     * Number of finished tasks, i.e. tasks for which {@link RunnablePredicate#isDone(long)} returned <code>true</code>.
+     */
+    public long completed() {
+        return completed;
+    }
+
+    /**
+     * Number of times tasks were queued again because {@link RunnablePredicate#isDone(long)} returned
+     * <code>false</code>.
+     */
+    public long resubmitted() {
+        return resubmitted;
+    }
+
+    /**
+     * Number of fired delayed tasks.
+     */
+    public long timersFired() {
+        return timersFired;
+    }
+
+    /**
+     * Number of tasks discarded because their deadline passed before execution, see {@link ExpirableTask}.
+     */
+    public long shed() {
+        return shed;
+    }
+
+    /**
+     * Time between task submission and its first execution.
+     */
+    public Histogram queueLatency() {
+        return queueLatency;
+    }
+
+    /**
+     * Time of single task execution.
+     */
+    public Histogram executionTime() {
+        return executionTime;
+    }
+
+    /**
+     * Difference between actual and requested execution time of delayed tasks.
+     */
+    public Histogram timerLateness() {
+        return timerLateness;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", "ProcessorMetrics(", ")")
+                .add("queueDepth=" + queueDepth)
+                .add("submitted=" + submitted)
+                .add("completed=" + completed)
+                .add("resubmitted=" + resubmitted)
+                .add("timersFired=" + timersFired)
+                .add("shed=" + shed)
+                .add("queueLatency=" + queueLatency)
+                .add("executionTime=" + executionTime)
+                .add("timerLateness=" + timerLateness)
+                .toString();
+    }
+}
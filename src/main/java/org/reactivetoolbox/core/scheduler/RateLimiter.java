@@ -0,0 +1,80 @@
+package org.reactivetoolbox.core.scheduler;
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.async.Promise;
+import org.reactivetoolbox.core.lang.Unit;
+import org.reactivetoolbox.core.scheduler.impl.SlidingWindowRateLimiter;
+import org.reactivetoolbox.core.scheduler.impl.TokenBucketRateLimiter;
+
+/**
+ * Non-blocking rate limiter. Instead of blocking caller until permit is available, {@link #acquire()} returns
+ * {@link Promise} which is resolved once permit becomes available. Waiting callers do not occupy threads: every
+ * caller reserves its permit with single atomic operation and, if permit is not available immediately, promise
+ * is resolved by delayed task of the {@link TaskScheduler}.
+ * <br>
+ * Permits are reserved in the order of {@link #acquire()} invocations and can't be returned.
+ */
+public interface RateLimiter {
+    /**
+     * Reserve permit.
+     *
+     * @return promise which is resolved once reserved permit becomes available
+     */
+    Promise<Unit> acquire();
+
+    /**
+     * Take permit only if it is available immediately.
+     *
+     * @return <code>true</code> if permit is taken
+     */
+    boolean tryAcquire();
+
+    /**
+     * Create rate limiter which uses token bucket algorithm. Permits are issued with constant rate and at most
+     * <code>burst</code> permits can be accumulated while there are no callers.
+     *
+     * @param scheduler
+     *        Scheduler used to resolve promises of waiting callers
+     * @param permits
+     *        Number of permits issued per period
+     * @param period
+     *        Period of time
+     * @param burst
+     *        Maximal number of permits available at once
+     * @return created rate limiter
+     */
+    static RateLimiter tokenBucket(final TaskScheduler scheduler, final int permits, final Timeout period,
+                                   final int burst) {
+        return TokenBucketRateLimiter.tokenBucket(scheduler, permits, period, burst);
+    }
+
+    /**
+     * Create rate limiter which issues at most specified number of permits during any time window of specified
+     * length.
+     *
+     * @param scheduler
+     *        Scheduler used to resolve promises of waiting callers
+     * @param permits
+     *        Maximal number of permits per window
+     * @param window
+     *        Length of the window
+     * @return created rate limiter
+     */
+    static RateLimiter slidingWindow(final TaskScheduler scheduler, final int permits, final Timeout window) {
+        return SlidingWindowRateLimiter.slidingWindow(scheduler, permits, window);
+    }
+}
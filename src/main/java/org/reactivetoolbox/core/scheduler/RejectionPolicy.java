@@ -0,0 +1,45 @@
+package org.reactivetoolbox.core.scheduler;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.Errors;
+
+/**
+ * Policy applied by {@link TaskScheduler} when task is submitted to worker which already has maximal allowed
+ * number of pending tasks.
+ *
+ * @see SchedulerConfig#withCapacity(int, RejectionPolicy)
+ */
+public enum RejectionPolicy {
+    /**
+     * Reject task. {@link TaskScheduler#trySubmit(RunnablePredicate)} returns {@link Errors#OVERLOADED} failure,
+     * while {@link TaskScheduler#submit(RunnablePredicate)} throws
+     * {@link java.util.concurrent.RejectedExecutionException}.
+     */
+    FAIL,
+    /**
+     * Run task in the calling thread. If {@link RunnablePredicate} is not done after first invocation, it is queued
+     * regardless of capacity limit.
+     */
+    CALLER_RUNS,
+    /**
+     * Discard oldest pending task of the worker and queue submitted one. If worker has no queued task which can be
+     * discarded (for example, in deadline scheduling mode all pending tasks are already in the heap owned by worker
+     * thread), submitted task is rejected as with {@link #FAIL}.
+     */
+    DROP_OLDEST
+}
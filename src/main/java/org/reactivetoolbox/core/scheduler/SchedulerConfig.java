@@ -0,0 +1,249 @@
+package org.reactivetoolbox.core.scheduler;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.lang.Option;
+
+import java.util.StringJoiner;
+
+/**
+ * Immutable {@link TaskScheduler} configuration. Every <code>with...</code> method returns new instance with
+ * corresponding parameter changed.
+ */
+public final class SchedulerConfig {
+    private final int size;
+    private final WaitStrategy waitStrategy;
+    private final boolean workStealing;
+    private final int ringBufferCapacity;
+    private final int capacity;
+    private final RejectionPolicy rejectionPolicy;
+    private final boolean metrics;
+    private final boolean deadlineScheduling;
+    private final int minSize;
+    private final CachedClock clock;
+
+    private SchedulerConfig(final int size, final WaitStrategy waitStrategy, final boolean workStealing,
+                            final int ringBufferCapacity, final int capacity, final RejectionPolicy rejectionPolicy,
+                            final boolean metrics, final boolean deadlineScheduling, final int minSize,
+                            final CachedClock clock) {
+        this.size = size;
+        this.waitStrategy = waitStrategy;
+        this.workStealing = workStealing;
+        this.ringBufferCapacity = ringBufferCapacity;
+        this.capacity = capacity;
+        this.rejectionPolicy = rejectionPolicy;
+        this.metrics = metrics;
+        this.deadlineScheduling = deadlineScheduling;
+        this.minSize = minSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Create configuration with specified execution pool size and default values for remaining parameters.
+     *
+     * @param size
+     *        Execution pool size
+     * @return created instance
+     */
+    public static SchedulerConfig config(final int size) {
+        return new SchedulerConfig(size, WaitStrategy.backoff(), false, 0, Integer.MAX_VALUE, RejectionPolicy.FAIL,
+                                   false, false, size, null);
+    }
+
+    /**
+     * Set strategy used by worker threads when there is no work to do.
+     *
+     * @param waitStrategy
+     *        Wait strategy
+     * @return new configuration instance
+     */
+    public SchedulerConfig withWaitStrategy(final WaitStrategy waitStrategy) {
+        return new SchedulerConfig(size, waitStrategy, workStealing, ringBufferCapacity, capacity, rejectionPolicy,
+                                   metrics, deadlineScheduling, minSize, clock);
+    }
+
+    /**
+     * Enable work stealing. In this mode idle worker threads take pending tasks from the most loaded
+     * worker threads.
+     *
+     * @return new configuration instance
+     */
+    public SchedulerConfig withWorkStealing() {
+        return new SchedulerConfig(size, waitStrategy, true, ringBufferCapacity, capacity, rejectionPolicy,
+                                   metrics, deadlineScheduling, minSize, clock);
+    }
+
+    /**
+     * Use array-backed ring buffers instead of linked queues for pending tasks. Ring buffers do not allocate memory
+     * per submitted task. If ring buffer is full, tasks are placed into linked overflow queue.
+     *
+     * @param ringBufferCapacity
+     *        Ring buffer capacity per queue, at least 2, rounded up to the nearest power of two
+     * @return new configuration instance
+     */
+    public SchedulerConfig withRingBuffer(final int ringBufferCapacity) {
+        if (ringBufferCapacity < 2) {
+            throw new IllegalArgumentException("Ring buffer capacity must be at least 2");
+        }
+        return new SchedulerConfig(size, waitStrategy, workStealing, ringBufferCapacity, capacity, rejectionPolicy,
+                                   metrics, deadlineScheduling, minSize, clock);
+    }
+
+    /**
+     * Limit number of pending tasks per worker thread. Once limit is reached, specified policy is applied
+     * to newly submitted tasks. Delayed tasks are not counted. By default number of pending tasks is not limited.
+     *
+     * @param capacity
+     *        Maximal number of pending tasks per worker thread
+     * @param rejectionPolicy
+     *        Policy applied when limit is reached
+     * @return new configuration instance
+     */
+    public SchedulerConfig withCapacity(final int capacity, final RejectionPolicy rejectionPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        return new SchedulerConfig(size, waitStrategy, workStealing, ringBufferCapacity, capacity, rejectionPolicy,
+                                   metrics, deadlineScheduling, minSize, clock);
+    }
+
+    /**
+     * Enable collection of scheduler metrics: queue depth, task queue latency and execution time, delayed tasks
+     * lateness and number of re-submissions. Metrics are available via {@link TaskScheduler#metrics()}.
+     *
+     * @return new configuration instance
+     */
+    public SchedulerConfig withMetrics() {
+        return new SchedulerConfig(size, waitStrategy, workStealing, ringBufferCapacity, capacity, rejectionPolicy,
+                                   true, deadlineScheduling, minSize, clock);
+    }
+
+    /**
+     * Enable earliest deadline first scheduling. In this mode every task has a deadline and each worker thread
+     * executes its pending tasks in the order of their deadlines instead of the order of submission. Deadline
+     * can be specified explicitly with {@link TaskScheduler#submitWithDeadline(Timeout, RunnablePredicate)} or with
+     * {@link TaskScheduler#submit(Priority, RunnablePredicate)}, remaining tasks get deadline of
+     * {@link Priority#NORMAL} priority.
+     * <br>
+     * Note that in this mode work stealing can take only those tasks, which are not yet picked up by worker thread.
+     *
+     * @return new configuration instance
+     */
+    public SchedulerConfig withDeadlineScheduling() {
+        return new SchedulerConfig(size, waitStrategy, workStealing, ringBufferCapacity, capacity, rejectionPolicy,
+                                   metrics, true, minSize, clock);
+    }
+
+    /**
+     * Enable adaptive pool size. In this mode configured size is the maximal number of worker threads which receive
+     * new tasks. Number of such threads is periodically adjusted between specified minimum and maximum according
+     * to measured utilisation and number of pending tasks. Remaining threads finish their pending tasks and stay
+     * parked until they are needed again.
+     *
+     * @param minSize
+     *        Minimal number of worker threads which receive new tasks
+     * @return new configuration instance
+     */
+    public SchedulerConfig withAdaptiveSize(final int minSize) {
+        if (minSize <= 0 || minSize > size) {
+            throw new IllegalArgumentException("Minimal size must be in range 1.." + size);
+        }
+        return new SchedulerConfig(size, waitStrategy, workStealing, ringBufferCapacity, capacity, rejectionPolicy,
+                                   metrics, deadlineScheduling, minSize, clock);
+    }
+
+    /**
+     * Use specified clock as a cached clock of the scheduler. Worker threads update clock at the start of every
+     * processing round and mark it as outdated before waiting for new tasks, see {@link CachedClock}.
+     *
+     * @param clock
+     *        Clock to update
+     * @return new configuration instance
+     */
+    public SchedulerConfig withClock(final CachedClock clock) {
+        return new SchedulerConfig(size, waitStrategy, workStealing, ringBufferCapacity, capacity, rejectionPolicy,
+                                   metrics, deadlineScheduling, minSize, clock);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public WaitStrategy waitStrategy() {
+        return waitStrategy;
+    }
+
+    public boolean workStealing() {
+        return workStealing;
+    }
+
+    /**
+     * Ring buffer capacity.
+     *
+     * @return ring buffer capacity or 0 if linked queues are used
+     */
+    public int ringBufferCapacity() {
+        return ringBufferCapacity;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public RejectionPolicy rejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    public boolean metrics() {
+        return metrics;
+    }
+
+    public boolean deadlineScheduling() {
+        return deadlineScheduling;
+    }
+
+    public int minSize() {
+        return minSize;
+    }
+
+    /**
+     * Cached clock updated by worker threads.
+     *
+     * @return clock or empty option if scheduler does not update any clock
+     */
+    public Option<CachedClock> clock() {
+        return Option.option(clock);
+    }
+
+    public boolean adaptiveSize() {
+        return minSize < size;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", "SchedulerConfig(", ")")
+                .add("size=" + size)
+                .add("workStealing=" + workStealing)
+                .add("ringBufferCapacity=" + ringBufferCapacity)
+                .add("capacity=" + capacity)
+                .add("rejectionPolicy=" + rejectionPolicy)
+                .add("metrics=" + metrics)
+                .add("deadlineScheduling=" + deadlineScheduling)
+                .add("minSize=" + minSize)
+                .toString();
+    }
+}
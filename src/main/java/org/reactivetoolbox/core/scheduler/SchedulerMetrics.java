@@ -0,0 +1,75 @@
+package org.reactivetoolbox.core.scheduler;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.lang.List;
+
+import java.util.StringJoiner;
+
+/**
+ * Snapshot of {@link TaskScheduler} metrics. Snapshot is collected without stopping worker threads, so values
+ * of different counters may be slightly inconsistent relative to each other.
+ *
+ * @see SchedulerConfig#withMetrics()
+ */
+public final class SchedulerMetrics {
+    private final List<ProcessorMetrics> processors;
+
+    private SchedulerMetrics(final List<ProcessorMetrics> processors) {
+        this.processors = processors;
+    }
+
+    public static SchedulerMetrics schedulerMetrics(final List<ProcessorMetrics> processors) {
+        return new SchedulerMetrics(processors);
+    }
+
+    /**
+     * Metrics of individual worker threads.
+     *
+     * @return list of worker metrics
+     */
+    public List<ProcessorMetrics> processors() {
+        return processors;
+    }
+
+    /**
+     * Total number of pending tasks.
+     *
+     * @return number of pending tasks
+     */
+    public long queueDepth() {
+        return processors.stream().mapToLong(ProcessorMetrics::queueDepth).sum();
+    }
+
+    /**
+     * Total number of tasks discarded because their deadline passed before execution.
+     *
+     * @return number of discarded tasks
+     */
+    public long shed() {
+        return processors.stream().mapToLong(ProcessorMetrics::shed).sum();
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", "SchedulerMetrics(", ")")
+                .add("queueDepth=" + queueDepth())
+                .add("shed=" + shed())
+                .add("processors=" + processors)
+                .toString();
+    }
+}
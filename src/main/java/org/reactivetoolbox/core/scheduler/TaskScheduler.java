@@ -16,8 +16,14 @@ package org.reactivetoolbox.core.scheduler;
  * limitations under the License.
  */
 
+import org.reactivetoolbox.core.Errors;
+import org.reactivetoolbox.core.lang.List;
+import org.reactivetoolbox.core.lang.Option;
+import org.reactivetoolbox.core.lang.Result;
 import org.reactivetoolbox.core.log.CoreLogger;
+import org.reactivetoolbox.core.scheduler.impl.DelayedTask;
 import org.reactivetoolbox.core.scheduler.impl.DoubleQueueTaskScheduler;
+import org.reactivetoolbox.core.scheduler.impl.PeriodicTask;
 
 import java.util.concurrent.Executor;
 
@@ -25,21 +31,138 @@ import java.util.concurrent.Executor;
  * General purpose task scheduler for executing arbitrary functions.
  * <br>
  * Note that this scheduler is tailored for short living, non-blocking tasks. For long living and blocking tasks
- * other schedulers should be used.
+ * other schedulers should be used, for example {@link BlockingTaskScheduler}.
  *
  * @see RunnablePredicate
  */
 public interface TaskScheduler extends Executor {
     /**
-     * Low-level method which accepts {@link RunnablePredicate} and processes it as many times, as {@link RunnablePredicate#isDone(long)}
-     * returns false.
+     * Low-level method which accepts {@link RunnablePredicate} and processes it as many times, as
+     * {@link RunnablePredicate#isDone(long)} returns false.
      *
      * @param predicate
      *        Runnable predicate to execute
      * @return this instance for fluent call chaining.
+     * @throws java.util.concurrent.RejectedExecutionException if scheduler has capacity limit, it is reached and
+     * {@link RejectionPolicy#FAIL} policy is configured
      */
     TaskScheduler submit(final RunnablePredicate predicate);
 
+    /**
+     * Submit task which should be finished within specified time. Schedulers which support deadline scheduling
+     * execute pending tasks in the order of their deadlines, remaining schedulers ignore the deadline. Note that
+     * deadline is not enforced, i.e. task is executed even if deadline is already passed.
+     *
+     * @param deadline
+     *        Relative deadline of the task
+     * @param predicate
+     *        Runnable predicate to execute
+     * @return this instance for fluent call chaining.
+     * @see SchedulerConfig#withDeadlineScheduling()
+     */
+    default TaskScheduler submitWithDeadline(final Timeout deadline, final RunnablePredicate predicate) {
+        return submit(predicate);
+    }
+
+    /**
+     * Submit task which is discarded if it is not started before specified deadline. If deadline passes while task
+     * is waiting in the queue, task is not executed and provided action is invoked instead. This allows overloaded
+     * scheduler to skip tasks whose results are no longer needed. Deadline is also used for deadline scheduling,
+     * see {@link #submitWithDeadline(Timeout, RunnablePredicate)}.
+     *
+     * @param deadline
+     *        Relative deadline of the task
+     * @param predicate
+     *        Runnable predicate to execute
+     * @param onExpired
+     *        Action invoked if task is discarded
+     * @return this instance for fluent call chaining.
+     * @see ExpirableTask
+     */
+    default TaskScheduler submitExpiring(final Timeout deadline, final RunnablePredicate predicate,
+                                         final Runnable onExpired) {
+        return submitWithDeadline(deadline,
+                                  ExpirableTask.expirable(nanoTime() + deadline.nanos(), predicate, onExpired));
+    }
+
+    /**
+     * Submit task with specified priority. See {@link #submitWithDeadline(Timeout, RunnablePredicate)} for more
+     * details.
+     *
+     * @param priority
+     *        Priority of the task
+     * @param predicate
+     *        Runnable predicate to execute
+     * @return this instance for fluent call chaining.
+     */
+    default TaskScheduler submit(final Priority priority, final RunnablePredicate predicate) {
+        return submitWithDeadline(priority.deadline(), predicate);
+    }
+
+    /**
+     * Submit batch of tasks. Implementations may enqueue entire batch at once, which is cheaper than submission
+     * of tasks one by one.
+     *
+     * @param predicates
+     *        Tasks to execute
+     * @return this instance for fluent call chaining.
+     * @throws java.util.concurrent.RejectedExecutionException if scheduler has capacity limit, it is reached and
+     * {@link RejectionPolicy#FAIL} policy is configured
+     */
+    default TaskScheduler submitAll(final RunnablePredicate... predicates) {
+        for (final var predicate : predicates) {
+            submit(predicate);
+        }
+        return this;
+    }
+
+    /**
+     * Submit batch of tasks. See {@link #submitAll(RunnablePredicate...)} for more details.
+     *
+     * @param predicates
+     *        Tasks to execute
+     * @return this instance for fluent call chaining.
+     */
+    default TaskScheduler submitAll(final List<RunnablePredicate> predicates) {
+        return submitAll(predicates.stream().toArray(RunnablePredicate[]::new));
+    }
+
+    /**
+     * Same as {@link #submit(RunnablePredicate)}, but reports overload as a failure instead of throwing an exception.
+     * Schedulers without capacity limits always accept the task.
+     *
+     * @param predicate
+     *        Runnable predicate to execute
+     * @return success with this instance if task is accepted or {@link Errors#OVERLOADED} failure if task
+     * is rejected
+     * @see SchedulerConfig#withCapacity(int, RejectionPolicy)
+     */
+    default Result<TaskScheduler> trySubmit(final RunnablePredicate predicate) {
+        return Result.ok(submit(predicate));
+    }
+
+    /**
+     * Same as {@link #submit(Runnable)}, but reports overload as a failure instead of throwing an exception.
+     *
+     * @param runnable
+     *        Task to execute
+     * @return success with this instance if task is accepted or {@link Errors#OVERLOADED} failure if task
+     * is rejected
+     */
+    default Result<TaskScheduler> trySubmit(final Runnable runnable) {
+        return trySubmit((nanoTime) -> { runnable.run(); return true;});
+    }
+
+    /**
+     * Get snapshot of scheduler metrics.
+     *
+     * @return metrics snapshot or empty option if scheduler does not collect metrics
+     * @see SchedulerConfig#withMetrics()
+     */
+    default Option<SchedulerMetrics> metrics() {
+        return Option.empty();
+    }
+
     /**
      * Get internal logger instance.
      *
@@ -85,25 +208,128 @@ public interface TaskScheduler extends Executor {
      * @return this instance fo fluent call chaining.
      */
     default TaskScheduler submit(final Timeout timeout, final Runnable runnable) {
-        final long threshOld = System.nanoTime() + timeout.nanos();
+        schedule(timeout, runnable);
+        return this;
+    }
 
-        return submit(nanoTime -> {
-            if (nanoTime >= threshOld) {
-                runnable.run();
-                return true;
-            }
-            return false;
-        });
+    /**
+     * Submit task which will be executed once specified timeout is expired and return handle which can be used
+     * to cancel the task before it is executed. Cancelled tasks are removed from the scheduler, so they do not
+     * retain memory and do not consume CPU until timeout expiration.
+     *
+     * @param timeout
+     *        Timeout after which task will be executed
+     * @param runnable
+     *        Code to execute
+     * @return handle which can be used to cancel the task
+     */
+    default Cancellable schedule(final Timeout timeout, final Runnable runnable) {
+        final var task = DelayedTask.delayedTask(nanoTime() + timeout.nanos(), runnable);
+
+        submit(task);
+        return task;
+    }
+
+    /**
+     * Current time as seen by this scheduler. Delayed and periodic tasks are scheduled relative to this time.
+     *
+     * @return current time in nanoseconds, compatible with {@link System#nanoTime()}
+     */
+    default long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Schedule task which is executed periodically with specified period between starts of consecutive runs.
+     * Missed runs are executed back to back, see {@link MissedRunPolicy#CATCH_UP}.
+     *
+     * @param initialDelay
+     *        Delay before first run
+     * @param period
+     *        Period between starts of consecutive runs
+     * @param runnable
+     *        Task to execute
+     * @return handle which can be used to cancel the task
+     */
+    default Cancellable scheduleAtFixedRate(final Timeout initialDelay, final Timeout period, final Runnable runnable) {
+        return scheduleAtFixedRate(initialDelay, period, MissedRunPolicy.CATCH_UP, runnable);
+    }
+
+    /**
+     * Schedule task which is executed periodically with specified period between starts of consecutive runs.
+     * Run times are calculated from the original schedule, so they do not drift over time.
+     *
+     * @param initialDelay
+     *        Delay before first run
+     * @param period
+     *        Period between starts of consecutive runs
+     * @param policy
+     *        Policy for missed runs
+     * @param runnable
+     *        Task to execute
+     * @return handle which can be used to cancel the task
+     */
+    default Cancellable scheduleAtFixedRate(final Timeout initialDelay, final Timeout period,
+                                            final MissedRunPolicy policy, final Runnable runnable) {
+        return PeriodicTask.fixedRate(this, initialDelay, period, policy, runnable);
+    }
+
+    /**
+     * Schedule task which is executed periodically with specified delay between end of previous run and start
+     * of the next one.
+     *
+     * @param initialDelay
+     *        Delay before first run
+     * @param delay
+     *        Delay between end of previous run and start of the next one
+     * @param runnable
+     *        Task to execute
+     * @return handle which can be used to cancel the task
+     */
+    default Cancellable scheduleWithFixedDelay(final Timeout initialDelay, final Timeout delay,
+                                               final Runnable runnable) {
+        return PeriodicTask.fixedDelay(this, initialDelay, delay, runnable);
     }
 
     /**
      * Shutdown scheduler. Once scheduler is shut down, remaining tasks will be processed, but no new tasks
-     * will be accepted.
+     * will be accepted: {@link #submit(RunnablePredicate)} throws {@link IllegalStateException}, while
+     * {@link #trySubmit(RunnablePredicate)} returns {@link Errors#SHUT_DOWN} failure. Delayed tasks are executed
+     * once their timeouts expire, periodic tasks are not re-scheduled.
+     * <br>
+     * This method does not wait for remaining tasks, use {@link #awaitTermination(Timeout)} for this purpose.
      */
     void shutdown();
 
     /**
-     * Create instance of scheduler with specified execution pool size.
+     * Wait until all remaining tasks are processed after {@link #shutdown()}.
+     *
+     * @param timeout
+     *        Maximal time to wait
+     * @return <code>true</code> if scheduler is terminated and <code>false</code> if timeout expired or waiting
+     * thread was interrupted
+     * @throws UnsupportedOperationException
+     *         if scheduler does not support waiting for termination (default implementation)
+     */
+    default boolean awaitTermination(final Timeout timeout) {
+        throw new UnsupportedOperationException("Scheduler does not support waiting for termination");
+    }
+
+    /**
+     * Shutdown scheduler without processing remaining tasks. Tasks which are executing at the moment of invocation
+     * are not interrupted and this method waits until they are finished.
+     *
+     * @return list of tasks which were not processed, including delayed tasks
+     * @throws UnsupportedOperationException
+     *         if scheduler does not support immediate shutdown (default implementation)
+     */
+    default List<RunnablePredicate> shutdownNow() {
+        throw new UnsupportedOperationException("Scheduler does not support immediate shutdown");
+    }
+
+    /**
+     * Create instance of scheduler with specified execution pool size. Idle worker threads use
+     * {@link WaitStrategy#backoff()} strategy.
      *
      * @param size
      *        Execution pool size
@@ -112,4 +338,31 @@ public interface TaskScheduler extends Executor {
     static TaskScheduler with(final int size) {
         return DoubleQueueTaskScheduler.with(size);
     }
+
+    /**
+     * Create instance of scheduler with specified execution pool size and strategy used by worker threads
+     * when there is no work to do.
+     *
+     * @param size
+     *        Execution pool size
+     * @param waitStrategy
+     *        Wait strategy for idle worker threads
+     * @return created scheduler
+     * @see WaitStrategy
+     */
+    static TaskScheduler with(final int size, final WaitStrategy waitStrategy) {
+        return with(SchedulerConfig.config(size).withWaitStrategy(waitStrategy));
+    }
+
+    /**
+     * Create instance of scheduler with specified configuration.
+     *
+     * @param config
+     *        Scheduler configuration
+     * @return created scheduler
+     * @see SchedulerConfig
+     */
+    static TaskScheduler with(final SchedulerConfig config) {
+        return DoubleQueueTaskScheduler.with(config);
+    }
 }
@@ -0,0 +1,100 @@
+package org.reactivetoolbox.core.scheduler;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Strategy used by scheduler worker thread when there is no work to do. Strategies which park worker thread
+ * rely on scheduler to unpark worker once new task is submitted or delayed task comes due, so parking does not
+ * increase wakeup latency for submitted tasks.
+ */
+@FunctionalInterface
+public interface WaitStrategy {
+    int DEFAULT_SPINS = 100;
+    int DEFAULT_YIELDS = 10;
+
+    /**
+     * Wait for work. Invoked by worker thread after each processing round which did not perform any work.
+     *
+     * @param idleCount
+     *        Number of consecutive idle rounds before this one
+     * @param maxWaitNanos
+     *        Maximal time (in nanoseconds) worker is allowed to wait before next processing round
+     */
+    void idle(final int idleCount, final long maxWaitNanos);
+
+    /**
+     * Keep worker thread spinning. Provides lowest wakeup latency at the cost of full CPU core per worker thread.
+     *
+     * @return created strategy
+     */
+    static WaitStrategy busySpin() {
+        return (idleCount, maxWaitNanos) -> Thread.onSpinWait();
+    }
+
+    /**
+     * Yield CPU to other threads between processing rounds. Worker thread still consumes CPU when idle.
+     *
+     * @return created strategy
+     */
+    static WaitStrategy yielding() {
+        return (idleCount, maxWaitNanos) -> Thread.yield();
+    }
+
+    /**
+     * Park worker thread immediately once there is no work to do.
+     *
+     * @return created strategy
+     */
+    static WaitStrategy parking() {
+        return (idleCount, maxWaitNanos) -> LockSupport.parkNanos(maxWaitNanos);
+    }
+
+    /**
+     * Progressive backoff with default parameters. This strategy is used by default.
+     *
+     * @return created strategy
+     * @see #backoff(int, int)
+     */
+    static WaitStrategy backoff() {
+        return backoff(DEFAULT_SPINS, DEFAULT_YIELDS);
+    }
+
+    /**
+     * Progressive backoff: spin for specified number of idle rounds, then yield for specified number of idle rounds
+     * and then park worker thread until there is work to do. This strategy keeps wakeup latency low under load and
+     * drops CPU consumption to near zero when scheduler is idle.
+     *
+     * @param spins
+     *        Number of idle rounds to spin
+     * @param yields
+     *        Number of idle rounds to yield after spinning
+     * @return created strategy
+     */
+    static WaitStrategy backoff(final int spins, final int yields) {
+        return (idleCount, maxWaitNanos) -> {
+            if (idleCount < spins) {
+                Thread.onSpinWait();
+            } else if (idleCount < spins + yields) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(maxWaitNanos);
+            }
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.lang.Option;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.reactivetoolbox.core.lang.Option.empty;
+import static org.reactivetoolbox.core.lang.Option.option;
+
+/**
+ * Detection of number of CPU's available to application. Besides number of processors reported by JVM, CPU quota
+ * configured via Linux control groups (both v1 and v2) is taken into account, so application running in container
+ * does not create more worker threads than it can actually use.
+ */
+public final class CpuLimits {
+    private static final Path CGROUP_V2_CPU_MAX = Path.of("/sys/fs/cgroup/cpu.max");
+    private static final Path CGROUP_V1_QUOTA = Path.of("/sys/fs/cgroup/cpu/cpu.cfs_quota_us");
+    private static final Path CGROUP_V1_PERIOD = Path.of("/sys/fs/cgroup/cpu/cpu.cfs_period_us");
+
+    private CpuLimits() {
+    }
+
+    /**
+     * Number of CPU's available to application.
+     *
+     * @return number of available CPU's, at least 1
+     */
+    public static int availableProcessors() {
+        final int processors = Runtime.getRuntime().availableProcessors();
+
+        return Math.max(1, cgroupLimit().map(limit -> Math.min(limit, processors)).otherwise(processors));
+    }
+
+    private static Option<Integer> cgroupLimit() {
+        return read(CGROUP_V2_CPU_MAX).flatMap(CpuLimits::parseCpuMax)
+                                      .or(() -> read(CGROUP_V1_QUOTA).flatMap(quota -> read(CGROUP_V1_PERIOD)
+                                              .flatMap(period -> parseCfsQuota(quota, period))));
+    }
+
+    /**
+     * Parse content of cgroup v2 <code>cpu.max</code> file, which has format
+     * <code>"&lt;quota&gt; &lt;period&gt;"</code>, where <code>&lt;quota&gt;</code> can be <code>max</code> if there
+     * is no limit.
+     */
+    static Option<Integer> parseCpuMax(final String content) {
+        final var parts = content.trim().split("\\s+");
+
+        if (parts.length != 2 || "max".equals(parts[0])) {
+            return empty();
+        }
+        return limit(parts[0], parts[1]);
+    }
+
+    /**
+     * Parse content of cgroup v1 <code>cpu.cfs_quota_us</code> and <code>cpu.cfs_period_us</code> files. Negative
+     * quota means that there is no limit.
+     */
+    static Option<Integer> parseCfsQuota(final String quota, final String period) {
+        return limit(quota.trim(), period.trim());
+    }
+
+    private static Option<Integer> limit(final String quota, final String period) {
+        try {
+            final long quotaValue = Long.parseLong(quota);
+            final long periodValue = Long.parseLong(period);
+
+            if (quotaValue <= 0 || periodValue <= 0) {
+                return empty();
+            }
+            return option((int) Math.max(1, (quotaValue + periodValue - 1) / periodValue));
+        } catch (final NumberFormatException e) {
+            return empty();
+        }
+    }
+
+    private static Option<String> read(final Path path) {
+        try {
+            return Files.isReadable(path) ? option(Files.readString(path)) : empty();
+        } catch (final IOException | SecurityException e) {
+            return empty();
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.Errors;
+import org.reactivetoolbox.core.lang.List;
+import org.reactivetoolbox.core.lang.Option;
+import org.reactivetoolbox.core.lang.Result;
+import org.reactivetoolbox.core.log.CoreLogger;
+import org.reactivetoolbox.core.scheduler.Cancellable;
+import org.reactivetoolbox.core.scheduler.FairShareTaskScheduler;
+import org.reactivetoolbox.core.scheduler.RunnablePredicate;
+import org.reactivetoolbox.core.scheduler.SchedulerConfig;
+import org.reactivetoolbox.core.scheduler.SchedulerMetrics;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+import org.reactivetoolbox.core.scheduler.Timeout;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of {@link FairShareTaskScheduler}. Tenant tasks are kept in per-tenant lock-free queues, while
+ * tasks are executed by up to {@link SchedulerConfig#size()} server tasks running on underlying
+ * {@link DoubleQueueTaskScheduler}. Tenants with pending tasks form lock-free round queue. Every server repeatedly
+ * takes tenant from the head of the round, picks tenant share of tasks, returns tenant to the end of the round and
+ * executes picked tasks. Since tenant is present in the round at most once and is owned by single server until it is
+ * returned, servers never block each other. After a batch of tasks server yields to the underlying scheduler, so
+ * delayed tasks and tasks submitted directly to underlying scheduler are not starved. Servers are started on demand
+ * and stop once there are no pending tasks.
+ * <br>
+ * Deficit of every tenant is measured in task executions: tenant which comes to the head of the round gets
+ * number of executions equal to its weight. Since every execution has the same cost, unused deficit is not carried
+ * over to the next round. Tasks which are not done after execution are returned to the end of tenant queue and
+ * consume tenant share during next executions.
+ * <br>
+ * Once tenant has no pending tasks, its state is removed, so memory usage does not depend on the number of idle
+ * tenants. Only weights set with {@link #weight(Object, int)} are retained.
+ * <br>
+ * Delayed tasks accepted before shutdown are executed once their timeout expires, even if scheduler is shut down
+ * in the meantime.
+ */
+public class DeficitRoundRobinScheduler implements FairShareTaskScheduler {
+    private static final Object DEFAULT_TENANT = new Object();
+    private static final int SERVER_BATCH = 64;
+
+    private final DoubleQueueTaskScheduler delegate;
+    private final int parallelism;
+    private final ConcurrentMap<Object, Tenant> tenants = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, Integer> weights = new ConcurrentHashMap<>();
+    private final Queue<Tenant> round = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger servers = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private volatile boolean shutdown = false;
+    private volatile boolean stopped = false;
+
+    private DeficitRoundRobinScheduler(final DoubleQueueTaskScheduler delegate, final int parallelism) {
+        this.delegate = delegate;
+        this.parallelism = parallelism;
+    }
+
+    public static DeficitRoundRobinScheduler with(final SchedulerConfig config) {
+        return new DeficitRoundRobinScheduler(DoubleQueueTaskScheduler.with(config), config.size());
+    }
+
+    @Override
+    public FairShareTaskScheduler weight(final Object tenant, final int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be positive");
+        }
+        weights.put(tenant, weight);
+        tenants.computeIfPresent(tenant, (key, state) -> {
+            state.weight = weight;
+            return state;
+        });
+        return this;
+    }
+
+    @Override
+    public FairShareTaskScheduler submit(final Object tenant, final RunnablePredicate predicate) {
+        if (shutdown) {
+            throw new IllegalStateException("Attempt to submit new task after scheduler is shut down");
+        }
+
+        enqueue(tenant, predicate);
+        return this;
+    }
+
+    @Override
+    public TaskScheduler tenant(final Object tenant) {
+        return new TenantScheduler(tenant);
+    }
+
+    @Override
+    public TaskScheduler submit(final RunnablePredicate predicate) {
+        return submit(DEFAULT_TENANT, predicate);
+    }
+
+    @Override
+    public Result<TaskScheduler> trySubmit(final RunnablePredicate predicate) {
+        if (shutdown) {
+            return Errors.SHUT_DOWN.asResult();
+        }
+        return Result.ok(submit(predicate));
+    }
+
+    @Override
+    public Cancellable schedule(final Timeout timeout, final Runnable runnable) {
+        return schedule(DEFAULT_TENANT, timeout, runnable);
+    }
+
+    @Override
+    public Option<SchedulerMetrics> metrics() {
+        return delegate.metrics();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        delegate.shutdown();
+    }
+
+    @Override
+    public boolean awaitTermination(final Timeout timeout) {
+        return delegate.awaitTermination(timeout);
+    }
+
+    @Override
+    public List<RunnablePredicate> shutdownNow() {
+        shutdown = true;
+        stopped = true;
+
+        final var abandoned = new ArrayList<RunnablePredicate>();
+
+        delegate.shutdownNow()
+                .filter(task -> !(task instanceof Server))
+                .apply(abandoned::add);
+
+        for (final var tenant : tenants.values()) {
+            RunnablePredicate task;
+
+            while ((task = tenant.poll()) != null) {
+                abandoned.add(task);
+            }
+        }
+        return List.from(abandoned);
+    }
+
+    @Override
+    public CoreLogger logger() {
+        return delegate.logger();
+    }
+
+    private Cancellable schedule(final Object tenant, final Timeout timeout, final Runnable runnable) {
+        // Task is accepted now, so it is enqueued even if scheduler is shut down before timeout expires
+        return delegate.schedule(timeout, () -> enqueue(tenant, (nanoTime) -> { runnable.run(); return true; }));
+    }
+
+    /**
+     * Add task to tenant queue and start server if necessary. Tenant which moves from zero pending tasks is added
+     * to the end of the round.
+     */
+    private void enqueue(final Object key, final RunnablePredicate predicate) {
+        while (true) {
+            final var tenant = tenants.computeIfAbsent(key, k -> new Tenant(k, weights.getOrDefault(k, 1)));
+            final int count = tenant.reserve();
+
+            if (count == KeyedQueue.RETIRED) {
+                continue;
+            }
+
+            waiting.incrementAndGet();
+            tenant.add(predicate);
+
+            if (count == 0) {
+                round.add(tenant);
+            }
+            break;
+        }
+
+        if (tryAcquireServer()) {
+            delegate.submitInternal(new Server());
+        }
+    }
+
+    /**
+     * Take tenant share of tasks from the head of the round.
+     *
+     * @return tenant which owns picked tasks or <code>null</code> if there are no pending tasks
+     */
+    private Tenant next(final ArrayDeque<RunnablePredicate> batch) {
+        Tenant tenant;
+
+        while ((tenant = round.poll()) != null) {
+            final int weight = tenant.weight;
+            RunnablePredicate task;
+
+            while (batch.size() < weight && (task = tenant.poll()) != null) {
+                batch.add(task);
+            }
+
+            final int picked = batch.size();
+
+            // Tenant without pending tasks is retired, so it is not added twice
+            if (!tenant.release(picked)) {
+                round.add(tenant);
+            }
+
+            if (picked > 0) {
+                waiting.addAndGet(-picked);
+                return tenant;
+            }
+        }
+        return null;
+    }
+
+    private boolean tryAcquireServer() {
+        int current;
+
+        do {
+            current = servers.get();
+
+            if (current >= parallelism) {
+                return false;
+            }
+        } while (!servers.compareAndSet(current, current + 1));
+
+        return true;
+    }
+
+    private final class Tenant extends KeyedQueue<RunnablePredicate> {
+        private volatile int weight;
+
+        private Tenant(final Object key, final int weight) {
+            super(tenants, key);
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Task which runs on underlying scheduler and serves tenant queues.
+     */
+    private final class Server implements RunnablePredicate {
+        private final ArrayDeque<RunnablePredicate> batch = new ArrayDeque<>();
+
+        @Override
+        public boolean isDone(final long nanoTime) {
+            int executed = 0;
+
+            while (executed < SERVER_BATCH) {
+                if (stopped) {
+                    servers.decrementAndGet();
+                    return true;
+                }
+
+                final var tenant = next(batch);
+
+                if (tenant == null) {
+                    servers.decrementAndGet();
+
+                    // Tasks could be submitted while server was stopping and found all servers busy
+                    return waiting.get() == 0 || !tryAcquireServer();
+                }
+
+                RunnablePredicate task;
+
+                while ((task = batch.poll()) != null) {
+                    if (stopped || !runTask(task)) {
+                        enqueue(tenant.key(), task);
+                    }
+                    executed++;
+                }
+            }
+            return false;
+        }
+
+        private boolean runTask(final RunnablePredicate task) {
+            try {
+                return task.isDone(System.nanoTime());
+            } catch (final Throwable t) {
+                logger().debug("Error while running task", t);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * View of the scheduler bound to the single tenant.
+     */
+    private final class TenantScheduler implements TaskScheduler {
+        private final Object tenant;
+
+        private TenantScheduler(final Object tenant) {
+            this.tenant = tenant;
+        }
+
+        @Override
+        public TaskScheduler submit(final RunnablePredicate predicate) {
+            DeficitRoundRobinScheduler.this.submit(tenant, predicate);
+            return this;
+        }
+
+        @Override
+        public Result<TaskScheduler> trySubmit(final RunnablePredicate predicate) {
+            if (shutdown) {
+                return Errors.SHUT_DOWN.asResult();
+            }
+            return Result.ok(submit(predicate));
+        }
+
+        @Override
+        public Cancellable schedule(final Timeout timeout, final Runnable runnable) {
+            return DeficitRoundRobinScheduler.this.schedule(tenant, timeout, runnable);
+        }
+
+        @Override
+        public CoreLogger logger() {
+            return DeficitRoundRobinScheduler.this.logger();
+        }
+
+        @Override
+        public void shutdown() {
+            DeficitRoundRobinScheduler.this.shutdown();
+        }
+
+        @Override
+        public boolean awaitTermination(final Timeout timeout) {
+            return DeficitRoundRobinScheduler.this.awaitTermination(timeout);
+        }
+
+        @Override
+        public List<RunnablePredicate> shutdownNow() {
+            return DeficitRoundRobinScheduler.this.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import org.reactivetoolbox.core.scheduler.Cancellable;
+import org.reactivetoolbox.core.scheduler.RunnablePredicate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delayed task for schedulers which do not have dedicated timer support. Task is polled until its deadline is
+ * reached. Once task is cancelled, it is removed during next poll.
+ */
+public final class DelayedTask implements RunnablePredicate, Cancellable {
+    private static final int PENDING = 0;
+    private static final int FIRED = 1;
+    private static final int CANCELLED = 2;
+
+    private final long deadline;
+    private final Runnable runnable;
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+
+    private DelayedTask(final long deadline, final Runnable runnable) {
+        this.deadline = deadline;
+        this.runnable = runnable;
+    }
+
+    public static DelayedTask delayedTask(final long deadlineNanos, final Runnable runnable) {
+        return new DelayedTask(deadlineNanos, runnable);
+    }
+
+    @Override
+    public boolean isDone(final long nanoTime) {
+        if (state.get() != PENDING) {
+            return true;
+        }
+
+        if (nanoTime - deadline < 0) {
+            return false;
+        }
+
+        if (state.compareAndSet(PENDING, FIRED)) {
+            runnable.run();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean cancel() {
+        return state.compareAndSet(PENDING, CANCELLED);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return state.get() == CANCELLED;
+    }
+}
@@ -16,61 +16,370 @@ package org.reactivetoolbox.core.scheduler.impl;
  * limitations under the License.
  */
 
+import org.reactivetoolbox.core.Errors;
+import org.reactivetoolbox.core.lang.List;
+import org.reactivetoolbox.core.lang.Option;
+import org.reactivetoolbox.core.lang.Result;
 import org.reactivetoolbox.core.log.CoreLogger;
 import org.reactivetoolbox.core.meta.AppMetaRepository;
+import org.reactivetoolbox.core.scheduler.Cancellable;
+import org.reactivetoolbox.core.scheduler.MissedRunPolicy;
 import org.reactivetoolbox.core.scheduler.RunnablePredicate;
+import org.reactivetoolbox.core.scheduler.SchedulerConfig;
+import org.reactivetoolbox.core.scheduler.SchedulerMetrics;
 import org.reactivetoolbox.core.scheduler.TaskScheduler;
+import org.reactivetoolbox.core.scheduler.Timeout;
 
+import java.util.Arrays;
+import java.util.Queue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static java.util.stream.IntStream.range;
 
 /**
  * Task scheduler tuned to large number of short tasks.
+ * <br>
+ * Every submitted task is dispatched using "power of two choices": two distinct processors are picked at random
+ * and task is sent to the one with fewer pending tasks. This gives load balance close to the one achieved by
+ * picking least loaded processor, while submission does not write to any field shared between submitting threads.
+ * <br>
+ * In work stealing mode idle worker threads take batches of pending tasks from the most loaded processor, so single
+ * long running task does not leave tasks queued behind it stranded while other worker threads are idle.
+ * <br>
+ * Batches submitted with {@link #submitAll(RunnablePredicate...)} are split into equal chunks, one per processor,
+ * and each processor is notified once per chunk. Only ring buffers (see {@link SchedulerConfig#withRingBuffer(int)})
+ * publish entire chunk at once, default linked queues insert tasks of the chunk one by one. If capacity limit is
+ * configured, tasks from batch are submitted one by one, so rejection policy is applied to each of them.
+ * <br>
+ * In deadline scheduling mode each worker thread executes its pending tasks in earliest deadline first order.
+ * <br>
+ * In adaptive size mode new tasks are dispatched only to a subset of processors. Size of the subset is periodically
+ * adjusted by {@link PoolSizeController} according to utilisation of processors. Processors outside the subset
+ * finish their pending tasks and delayed tasks, do not steal tasks from others and eventually park.
  */
 public class DoubleQueueTaskScheduler implements TaskScheduler {
+    private static final int STEAL_THRESHOLD = 2;
+    private static final int STEAL_BATCH_MAX = 256;
+    private static final long STEAL_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final String SUBMIT_AFTER_SHUTDOWN = "Attempt to submit new task after scheduler is shut down";
+    private static final Timeout CONTROLLER_PERIOD = Timeout.timeout(100).millis();
+
     private final ExecutorService executor;
     private final PredicateProcessor[] processors;
-    private int counter = 0;
-
-    private DoubleQueueTaskScheduler(final int size) {
-        executor = Executors.newFixedThreadPool(size, DaemonThreadFactory.of("Task Scheduler Thread #%d"));
-        processors = new PredicateProcessor[size];
-
-        range(0, size).forEach(n -> {
-            processors[n] = new PredicateProcessor();
-            executor.execute(() -> {
-                while (!executor.isShutdown()) {
-                    processors[n].processTimeoutsOnce();
-                    try {
-                        Thread.sleep(0);
-                    } catch (final InterruptedException e){
-                        logger().debug("Exception in scheduler processing loop", e);
-                    }
-                }
-            });
-        });
+    private final SchedulerConfig config;
+    private final PoolSizeController controller;
+    private final ThreadLocal<PredicateProcessor> localProcessor = new ThreadLocal<>();
+
+    private DoubleQueueTaskScheduler(final SchedulerConfig config) {
+        this.config = config;
+        executor = Executors.newFixedThreadPool(config.size(), DaemonThreadFactory.of("Task Scheduler Thread #%d"));
+        processors = new PredicateProcessor[config.size()];
+
+        range(0, config.size()).forEach(n -> processors[n] = new PredicateProcessor(queueFactory(config),
+                                                                                  config.metrics(),
+                                                                                  config.deadlineScheduling(),
+                                                                                  config.clock().otherwise(null)));
+        controller = config.adaptiveSize() ? new PoolSizeController(processors, config.minSize()) : null;
+
+        range(0, config.size()).forEach(n -> executor.execute(() -> processingLoop(n)));
     }
 
     public static DoubleQueueTaskScheduler with(final int size) {
-        return new DoubleQueueTaskScheduler(size);
+        return with(SchedulerConfig.config(size));
+    }
+
+    public static DoubleQueueTaskScheduler with(final SchedulerConfig config) {
+        final var scheduler = new DoubleQueueTaskScheduler(config);
+
+        if (scheduler.controller != null) {
+            scheduler.scheduleAtFixedRate(CONTROLLER_PERIOD, CONTROLLER_PERIOD, MissedRunPolicy.SKIP,
+                                          scheduler.controller);
+        }
+        return scheduler;
+    }
+
+    /**
+     * Number of processors which receive new tasks. Unless adaptive size mode is enabled, all processors receive
+     * new tasks.
+     *
+     * @return number of active processors
+     */
+    public int activeProcessors() {
+        return controller == null ? processors.length : controller.active();
+    }
+
+    private static Supplier<Queue<RunnablePredicate>> queueFactory(final SchedulerConfig config) {
+        if (config.ringBufferCapacity() > 0) {
+            return () -> RingBufferQueue.ringBuffer(config.ringBufferCapacity());
+        }
+        return LinkedTransferQueue::new;
+    }
+
+    private void processingLoop(final int index) {
+        final var processor = processors[index];
+        localProcessor.set(processor);
+        final long maxWaitNanos = config.workStealing() ? STEAL_CHECK_INTERVAL_NANOS : Long.MAX_VALUE;
+        int idleCount = 0;
+
+        while (processor.isActive()) {
+            if (processRound(processor)
+                || (config.workStealing() && index < activeProcessors() && steal(processor) > 0)) {
+                idleCount = 0;
+                continue;
+            }
+
+            processor.idle(config.waitStrategy(), idleCount, maxWaitNanos);
+
+            if (idleCount < Integer.MAX_VALUE) {
+                idleCount++;
+            }
+        }
+    }
+
+    private boolean processRound(final PredicateProcessor processor) {
+        if (controller == null) {
+            return processor.processTimeoutsOnce() > 0;
+        }
+
+        final long start = System.nanoTime();
+
+        if (processor.processTimeoutsOnce() == 0) {
+            return false;
+        }
+
+        processor.recordBusy(System.nanoTime() - start);
+        return true;
+    }
+
+    private int steal(final PredicateProcessor thief) {
+        PredicateProcessor victim = null;
+
+        for (final var processor : processors) {
+            if (processor != thief && (victim == null || processor.pending() > victim.pending())) {
+                victim = processor;
+            }
+        }
+
+        if (victim == null || victim.pending() < STEAL_THRESHOLD) {
+            return 0;
+        }
+
+        return thief.stealFrom(victim, Math.min(victim.pending() / 2, STEAL_BATCH_MAX));
     }
 
     @Override
     public TaskScheduler submit(final RunnablePredicate predicate) {
+        return submitWithDeadline(PredicateProcessor.NO_DEADLINE, predicate);
+    }
+
+    @Override
+    public Result<TaskScheduler> trySubmit(final RunnablePredicate predicate) {
+        return trySubmit(PredicateProcessor.NO_DEADLINE, predicate);
+    }
+
+    @Override
+    public TaskScheduler submitWithDeadline(final Timeout deadline, final RunnablePredicate predicate) {
+        final long deadlineNanos = config.deadlineScheduling()
+                                   ? System.nanoTime() + deadline.nanos()
+                                   : PredicateProcessor.NO_DEADLINE;
+
+        return submitWithDeadline(deadlineNanos, predicate);
+    }
+
+    private TaskScheduler submitWithDeadline(final long deadlineNanos, final RunnablePredicate predicate) {
+        if (config.capacity() != Integer.MAX_VALUE) {
+            return accepted(trySubmit(deadlineNanos, predicate));
+        }
+
+        // Without capacity limit task is never rejected, so there is no need to build and fold result
         if (executor.isShutdown()) {
-            throw new IllegalStateException("Attempt to submit new task after scheduler is shut down");
+            throw new IllegalStateException(SUBMIT_AFTER_SHUTDOWN);
         }
-        processors[counter = (counter + 1) % processors.length].submit(predicate);
+
+        nextProcessor().submitWithDeadline(deadlineNanos, predicate);
         return this;
     }
 
+    private static TaskScheduler accepted(final Result<TaskScheduler> result) {
+        return result.fold(failure -> {
+                               if (Errors.SHUT_DOWN.equals(failure)) {
+                                   throw new IllegalStateException(SUBMIT_AFTER_SHUTDOWN);
+                               }
+                               throw new RejectedExecutionException(failure.message());
+                           },
+                           scheduler -> scheduler);
+    }
+
+    private Result<TaskScheduler> trySubmit(final long deadlineNanos, final RunnablePredicate predicate) {
+        if (executor.isShutdown()) {
+            return Errors.SHUT_DOWN.asResult();
+        }
+
+        final var processor = nextProcessor();
+
+        if (processor.trySubmit(predicate, deadlineNanos, config.capacity())) {
+            return Result.ok(this);
+        }
+
+        switch (config.rejectionPolicy()) {
+            case CALLER_RUNS:
+                if (!predicate.isDone(System.nanoTime())) {
+                    processor.submitWithDeadline(deadlineNanos, predicate);
+                }
+                return Result.ok(this);
+
+            case DROP_OLDEST:
+                if (processor.replaceOldest(predicate, deadlineNanos)) {
+                    logger().debug("Scheduler capacity exceeded, oldest pending task is dropped");
+                    return Result.ok(this);
+                }
+                return Errors.OVERLOADED.asResult();
+
+            default:
+                return Errors.OVERLOADED.asResult();
+        }
+    }
+
+    @Override
+    public TaskScheduler submitAll(final RunnablePredicate... predicates) {
+        if (config.capacity() != Integer.MAX_VALUE) {
+            return TaskScheduler.super.submitAll(predicates);
+        }
+
+        final var batch = Arrays.asList(predicates);
+        final int start = nextIndex();
+        final int active = activeProcessors();
+
+        for (int i = 0; i < active; i++) {
+            final int from = (int) ((long) batch.size() * i / active);
+            final int to = (int) ((long) batch.size() * (i + 1) / active);
+
+            if (to > from) {
+                processors[(start + i) % active].submitAll(batch.subList(from, to));
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public TaskScheduler submit(final Timeout timeout, final Runnable runnable) {
+        schedule(timeout, runnable);
+        return this;
+    }
+
+    @Override
+    public Cancellable schedule(final Timeout timeout, final Runnable runnable) {
+        return nextProcessor().submit(timeout, runnable);
+    }
+
+    @Override
+    public Option<SchedulerMetrics> metrics() {
+        if (!config.metrics()) {
+            return Option.empty();
+        }
+
+        final var snapshots = Arrays.stream(processors)
+                                    .flatMap(processor -> processor.metrics().stream())
+                                    .collect(List.toList());
+
+        return Option.option(SchedulerMetrics.schedulerMetrics(snapshots));
+    }
+
     @Override
     public void shutdown() {
         executor.shutdown();
+
+        for (final var processor : processors) {
+            processor.shutdown();
+        }
     }
 
+    @Override
+    public boolean awaitTermination(final Timeout timeout) {
+        try {
+            return executor.awaitTermination(timeout.timeout(), TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public List<RunnablePredicate> shutdownNow() {
+        executor.shutdown();
+
+        for (final var processor : processors) {
+            processor.shutdownNow();
+        }
+
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                logger().debug("Waiting for worker threads to finish running tasks");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger().debug("Interrupted while waiting for worker threads, pending tasks are not collected", e);
+            return List.list();
+        }
+
+        final var abandoned = Arrays.stream(processors)
+                                    .flatMap(processor -> processor.drain().stream())
+                                    .collect(List.toList());
+
+        if (abandoned.size() > 0) {
+            logger().debug("Scheduler is stopped, {} pending tasks are abandoned", abandoned.size());
+        }
+        return abandoned;
+    }
+
+    /**
+     * Submit task regardless of shutdown state and capacity limit. Used by schedulers built on top of this one to
+     * execute work which was accepted before shutdown. Once scheduler is shut down, task submitted from worker thread
+     * is sent to the processor of this thread, since other processors may be already stopped.
+     *
+     * @param predicate
+     *        Task to submit
+     */
+    void submitInternal(final RunnablePredicate predicate) {
+        final var local = localProcessor.get();
+
+        if (local != null && executor.isShutdown()) {
+            local.submit(predicate);
+        } else {
+            processors[pickIndex()].submit(predicate);
+        }
+    }
+
+    private PredicateProcessor nextProcessor() {
+        return processors[nextIndex()];
+    }
+
+    private int nextIndex() {
+        if (executor.isShutdown()) {
+            throw new IllegalStateException(SUBMIT_AFTER_SHUTDOWN);
+        }
+        return pickIndex();
+    }
+
+    private int pickIndex() {
+        final int active = activeProcessors();
+
+        if (active == 1) {
+            return 0;
+        }
+
+        final var random = ThreadLocalRandom.current();
+        final int first = random.nextInt(active);
+        final int second = (first + 1 + random.nextInt(active - 1)) % active;
+
+        return processors[second].pending() < processors[first].pending() ? second : first;
+    }
 
     @Override
     public CoreLogger logger() {
@@ -0,0 +1,119 @@
+package org.reactivetoolbox.core.scheduler.impl;
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free queue of pending tasks of single key, which is served by at most one consumer at a time. Queue is stored
+ * in the map of active keys and keeps counter of pending tasks. Producer which moves counter from zero is
+ * responsible for starting the consumer. Consumer releases counter only after task is taken from the queue, so
+ * counter never returns to zero while consumer is active.
+ * <br>
+ * Once consumer takes the last pending task, counter is atomically moved to retired state and queue is removed from
+ * the map. Producers which observe retired counter help to remove queue from the map and retry with the new queue,
+ * so memory usage does not depend on the number of idle keys.
+ *
+ * @param <T>
+ *        Type of the tasks
+ */
+abstract class KeyedQueue<T> {
+    /**
+     * Counter value of the retired queue.
+     */
+    static final int RETIRED = -1;
+
+    private final ConcurrentMap<Object, ?> owner;
+    private final Object key;
+    private final Queue<T> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger count = new AtomicInteger();
+
+    protected KeyedQueue(final ConcurrentMap<Object, ?> owner, final Object key) {
+        this.owner = owner;
+        this.key = key;
+    }
+
+    Object key() {
+        return key;
+    }
+
+    /**
+     * Reserve place for the new task. Task must be added with {@link #add(Object)} once place is reserved.
+     *
+     * @return number of pending tasks before reservation or {@link #RETIRED} if queue is retired. In latter case
+     * queue is removed from the map and caller should retry with the new queue
+     */
+    int reserve() {
+        while (true) {
+            final int current = count.get();
+
+            if (current == RETIRED) {
+                // Consumer is about to remove retired queue, help it, so next attempt creates new one
+                owner.remove(key, this);
+                return RETIRED;
+            }
+
+            if (count.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    void add(final T task) {
+        tasks.add(task);
+    }
+
+    /**
+     * Remove task added by the caller. Tasks are compared by identity.
+     *
+     * @return <code>true</code> if task was found and removed
+     */
+    boolean removeExact(final T task) {
+        for (final var iterator = tasks.iterator(); iterator.hasNext(); ) {
+            if (iterator.next() == task) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    T poll() {
+        return tasks.poll();
+    }
+
+    /**
+     * Release places of the tasks taken from the queue. If there are no more pending tasks, queue is retired.
+     *
+     * @param taken
+     *        Number of tasks taken from the queue
+     * @return <code>true</code> if queue is retired
+     */
+    boolean release(final int taken) {
+        // Counter never returns to zero, so there is no second consumer
+        if (count.compareAndSet(taken, RETIRED)) {
+            owner.remove(key, this);
+            return true;
+        }
+
+        // Counter could be already incremented for tasks which are not added to the queue yet
+        count.addAndGet(-taken);
+        return false;
+    }
+}
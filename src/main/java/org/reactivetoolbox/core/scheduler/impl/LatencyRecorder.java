@@ -0,0 +1,51 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.scheduler.Histogram;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Single writer recorder of latency values. Values must be recorded from single thread, but snapshots can be taken
+ * from any thread at any time. Recording does not allocate and does not use any atomic read-modify-write operations.
+ */
+final class LatencyRecorder {
+    private final AtomicLongArray counts = new AtomicLongArray(Histogram.BUCKETS);
+    private volatile long sum;
+    private volatile long max;
+
+    void record(final long value) {
+        final int bucket = Histogram.bucketOf(value);
+
+        counts.lazySet(bucket, counts.get(bucket) + 1);
+        sum += Math.max(value, 0);
+
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    Histogram snapshot() {
+        final var snapshot = new long[Histogram.BUCKETS];
+
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return Histogram.histogram(snapshot, sum, max);
+    }
+}
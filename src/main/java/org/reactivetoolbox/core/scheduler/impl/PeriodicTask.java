@@ -0,0 +1,169 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.scheduler.Cancellable;
+import org.reactivetoolbox.core.scheduler.MissedRunPolicy;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+import org.reactivetoolbox.core.scheduler.Timeout;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.reactivetoolbox.core.scheduler.Timeout.timeout;
+
+/**
+ * Periodic task built on top of delayed tasks of {@link TaskScheduler}. Task re-arms itself after each run, so it
+ * is not polled between runs. Cancellation removes pending run from the scheduler. At fixed rate mode next run time
+ * is calculated from the original schedule rather than from the actual time of the previous run, so imprecision
+ * of individual runs does not accumulate.
+ * <br>
+ * Runs of the same task never overlap. Errors thrown by the task are logged and do not stop further runs.
+ */
+public final class PeriodicTask implements Cancellable, Runnable {
+    private static final long MILLIS_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final TaskScheduler scheduler;
+    private final Runnable runnable;
+    private final long periodNanos;
+    private final boolean fixedRate;
+    private final MissedRunPolicy policy;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private volatile Cancellable pendingRun;
+    private long nextRun;
+
+    private PeriodicTask(final TaskScheduler scheduler, final Runnable runnable, final long periodNanos,
+                         final boolean fixedRate, final MissedRunPolicy policy) {
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+
+        this.scheduler = scheduler;
+        this.runnable = runnable;
+        this.periodNanos = periodNanos;
+        this.fixedRate = fixedRate;
+        this.policy = policy;
+    }
+
+    /**
+     * Schedule task which is executed periodically with specified period between starts of consecutive runs.
+     *
+     * @param scheduler
+     *        Scheduler used to execute task
+     * @param initialDelay
+     *        Delay before first run
+     * @param period
+     *        Period between starts of consecutive runs
+     * @param policy
+     *        Policy for missed runs
+     * @param runnable
+     *        Task to execute
+     * @return handle which can be used to cancel the task
+     */
+    public static Cancellable fixedRate(final TaskScheduler scheduler, final Timeout initialDelay,
+                                        final Timeout period, final MissedRunPolicy policy, final Runnable runnable) {
+        return new PeriodicTask(scheduler, runnable, period.nanos(), true, policy).start(initialDelay);
+    }
+
+    /**
+     * Schedule task which is executed periodically with specified delay between end of previous run and start
+     * of the next one.
+     *
+     * @param scheduler
+     *        Scheduler used to execute task
+     * @param initialDelay
+     *        Delay before first run
+     * @param delay
+     *        Delay between end of previous run and start of the next one
+     * @param runnable
+     *        Task to execute
+     * @return handle which can be used to cancel the task
+     */
+    public static Cancellable fixedDelay(final TaskScheduler scheduler, final Timeout initialDelay,
+                                         final Timeout delay, final Runnable runnable) {
+        return new PeriodicTask(scheduler, runnable, delay.nanos(), false, MissedRunPolicy.SKIP).start(initialDelay);
+    }
+
+    @Override
+    public boolean cancel() {
+        if (!cancelled.compareAndSet(false, true)) {
+            return false;
+        }
+
+        final var run = pendingRun;
+
+        if (run != null) {
+            run.cancel();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    @Override
+    public void run() {
+        if (isCancelled()) {
+            return;
+        }
+
+        try {
+            runnable.run();
+        } catch (final Throwable t) {
+            scheduler.logger().debug("Error while running periodic task", t);
+        }
+
+        if (isCancelled()) {
+            return;
+        }
+
+        final long now = scheduler.nanoTime();
+
+        if (fixedRate) {
+            nextRun += periodNanos;
+
+            if (policy == MissedRunPolicy.SKIP && nextRun - now < 0) {
+                nextRun += ((now - nextRun) / periodNanos + 1) * periodNanos;
+            }
+        } else {
+            nextRun = now + periodNanos;
+        }
+
+        arm(now);
+    }
+
+    private PeriodicTask start(final Timeout initialDelay) {
+        final long now = scheduler.nanoTime();
+
+        nextRun = now + initialDelay.nanos();
+        arm(now);
+        return this;
+    }
+
+    private void arm(final long now) {
+        final long delay = Math.max(nextRun - now, 0);
+
+        try {
+            pendingRun = scheduler.schedule(timeout((delay + MILLIS_NANOS - 1) / MILLIS_NANOS).millis(), this);
+        } catch (final IllegalStateException e) {
+            // Scheduler is shut down, there will be no further runs
+            cancel();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.reactivetoolbox.core.scheduler.impl;
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.async.Promise;
+import org.reactivetoolbox.core.lang.Unit;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.reactivetoolbox.core.scheduler.Timeout.timeout;
+
+/**
+ * Helper for rate limiters: resolution of reserved permits.
+ */
+final class Permits {
+    private static final long MILLIS_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private Permits() {
+    }
+
+    /**
+     * Create promise which is resolved once specified delay expires. Delay is rounded up to milliseconds, so permit
+     * is never granted earlier than reserved.
+     *
+     * @param scheduler
+     *        Scheduler used to resolve promise
+     * @param delayNanos
+     *        Delay in nanoseconds, zero or negative value means that permit is available immediately
+     * @return created promise
+     */
+    static Promise<Unit> grantAfter(final TaskScheduler scheduler, final long delayNanos) {
+        if (delayNanos <= 0) {
+            return Promise.readyOk(Unit.unit());
+        }
+
+        final var promise = Promise.<Unit>promise();
+
+        scheduler.submit(timeout((delayNanos + MILLIS_NANOS - 1) / MILLIS_NANOS).millis(),
+                         () -> promise.ok(Unit.unit()));
+        return promise;
+    }
+}
@@ -0,0 +1,87 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Controller of the number of active processors for adaptive scheduler pool. Controller is invoked periodically
+ * and compares time spent by active processors on task processing with elapsed time. Pool grows by one processor
+ * when active processors are mostly busy or have long queues, and shrinks by one processor only after utilisation
+ * stays low for several consecutive samples, so short pauses in the load do not cause oscillation.
+ */
+final class PoolSizeController implements Runnable {
+    private static final double GROW_UTILISATION = 0.75;
+    private static final double SHRINK_UTILISATION = 0.25;
+    private static final int GROW_QUEUE_DEPTH = 64;
+    private static final int SHRINK_SAMPLES = 10;
+
+    private final PredicateProcessor[] processors;
+    private final int minSize;
+    private final long[] lastBusyNanos;
+    private volatile int active;
+    private long lastSampleNanos;
+    private int lowSamples = 0;
+
+    PoolSizeController(final PredicateProcessor[] processors, final int minSize) {
+        this.processors = processors;
+        this.minSize = minSize;
+        this.lastBusyNanos = new long[processors.length];
+        this.active = processors.length;
+        this.lastSampleNanos = System.nanoTime();
+    }
+
+    /**
+     * Number of processors which should receive new tasks.
+     */
+    int active() {
+        return active;
+    }
+
+    @Override
+    public void run() {
+        final long now = System.nanoTime();
+        final long elapsed = Math.max(now - lastSampleNanos, 1);
+        final int current = active;
+        long busy = 0;
+        long queueDepth = 0;
+
+        for (int i = 0; i < processors.length; i++) {
+            final long busyNanos = processors[i].busyNanos();
+
+            if (i < current) {
+                busy += busyNanos - lastBusyNanos[i];
+                queueDepth += processors[i].pending();
+            }
+            lastBusyNanos[i] = busyNanos;
+        }
+        lastSampleNanos = now;
+
+        final double utilisation = (double) busy / ((double) elapsed * current);
+
+        if ((utilisation > GROW_UTILISATION || queueDepth > (long) GROW_QUEUE_DEPTH * current)
+            && current < processors.length) {
+            lowSamples = 0;
+            active = current + 1;
+        } else if (utilisation < SHRINK_UTILISATION && current > minSize) {
+            if (++lowSamples >= SHRINK_SAMPLES) {
+                lowSamples = 0;
+                active = current - 1;
+            }
+        } else {
+            lowSamples = 0;
+        }
+    }
+}
@@ -16,41 +16,630 @@ package org.reactivetoolbox.core.scheduler.impl;
  * limitations under the License.
  */
 
+import org.reactivetoolbox.core.lang.Option;
+import org.reactivetoolbox.core.scheduler.CachedClock;
+import org.reactivetoolbox.core.scheduler.Cancellable;
+import org.reactivetoolbox.core.scheduler.ExpirableTask;
+import org.reactivetoolbox.core.scheduler.Priority;
+import org.reactivetoolbox.core.scheduler.ProcessorMetrics;
 import org.reactivetoolbox.core.scheduler.RunnablePredicate;
+import org.reactivetoolbox.core.scheduler.Timeout;
+import org.reactivetoolbox.core.scheduler.WaitStrategy;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
 /**
  * Single processing pipeline for {@link RunnablePredicate} tasks. Incoming tasks are placed into incoming queue,
  * while tasks are processed from processing queue. Once processing queue is empty queues are swapped.
+ * Delayed tasks are kept separately in the {@link TimingWheel} and are not polled until they are due.
  * In order to make this processor work, its {@link #processTimeoutsOnce()} method must be invoked as frequently
- * as possible.
+ * as possible. If there is no work to do, worker thread may wait using {@link #idle(WaitStrategy, int, long)},
+ * in this case it gets woken up once new task is submitted.
+ * <br>
+ * Pending tasks (but not delayed ones) can be taken by other processors using
+ * {@link #stealFrom(PredicateProcessor, int)}.
+ * <br>
+ * Tasks implementing {@link ExpirableTask} are discarded instead of execution if their deadline passed while they
+ * were waiting in the queue. Number of such tasks is counted in metrics.
+ * <br>
+ * Time passed to tasks is read once per processing round, so tasks see time of the round start. The same time is
+ * stored in the cached clock, if processor is configured with one. If metrics are enabled, processor reads time
+ * before and after each task and collects queue latency and execution time of every task as well as lateness
+ * of delayed tasks. Snapshot of these values can be obtained with {@link #metrics()}.
+ * <br>
+ * In deadline scheduling mode every task gets a deadline and tasks picked up from the incoming queue are kept
+ * in the heap owned by worker thread and executed in earliest deadline first order. Tasks submitted without
+ * explicit deadline get deadline of {@link Priority#NORMAL} priority. Tasks which are already in the heap can't
+ * be stolen by other processors.
+ * <br>
+ * Processor can be shut down in two ways. After {@link #shutdown()} processor remains active until all pending
+ * tasks, including delayed ones, are processed. After {@link #shutdownNow()} processor stops after currently
+ * executing task, remaining tasks can be retrieved with {@link #drain()} once worker thread is stopped.
  */
 public class PredicateProcessor {
-    private volatile Queue<RunnablePredicate> processingQueue = new LinkedTransferQueue<>();
-    private final AtomicReference<Queue<RunnablePredicate>> incomingQueue = new AtomicReference<>(new LinkedTransferQueue<>());
+    /**
+     * Deadline value which denotes that task has no explicit deadline.
+     */
+    public static final long NO_DEADLINE = Long.MIN_VALUE;
+
+    private volatile Queue<RunnablePredicate> processingQueue;
+    private final AtomicReference<Queue<RunnablePredicate>> incomingQueue;
+    private final TimingWheel wheel;
+    private final CachedClock clock;
+    private final ProcessorStats stats;
+    private final PriorityQueue<DeadlineTask> deadlineQueue;
+    private final List<DeadlineTask> deferred = new ArrayList<>();
+    private long sequence = 0;
+    private volatile Thread waiter;
+    private volatile State state = State.RUNNING;
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile long busyNanos = 0;
+    private long now;
+
+    public PredicateProcessor() {
+        this(LinkedTransferQueue::new);
+    }
+
+    /**
+     * Create processor which uses queues created by provided factory. Queues must be safe for concurrent use
+     * by multiple producers and multiple consumers.
+     *
+     * @param queueFactory
+     *        Factory for incoming and processing queues
+     */
+    public PredicateProcessor(final Supplier<Queue<RunnablePredicate>> queueFactory) {
+        this(queueFactory, false, false);
+    }
+
+    /**
+     * Create processor which uses queues created by provided factory and optionally collects metrics and
+     * uses deadline scheduling.
+     *
+     * @param queueFactory
+     *        Factory for incoming and processing queues
+     * @param metered
+     *        Enable collection of metrics
+     * @param deadlineScheduling
+     *        Execute tasks in earliest deadline first order
+     */
+    public PredicateProcessor(final Supplier<Queue<RunnablePredicate>> queueFactory, final boolean metered,
+                              final boolean deadlineScheduling) {
+        this(queueFactory, metered, deadlineScheduling, null);
+    }
+
+    /**
+     * Create processor which uses queues created by provided factory, optionally collects metrics, uses deadline
+     * scheduling and updates cached clock.
+     *
+     * @param queueFactory
+     *        Factory for incoming and processing queues
+     * @param metered
+     *        Enable collection of metrics
+     * @param deadlineScheduling
+     *        Execute tasks in earliest deadline first order
+     * @param clock
+     *        Clock which is ticked at the start of every processing round and invalidated before waiting for work,
+     *        may be <code>null</code>
+     */
+    public PredicateProcessor(final Supplier<Queue<RunnablePredicate>> queueFactory, final boolean metered,
+                              final boolean deadlineScheduling, final CachedClock clock) {
+        this.clock = clock;
+        processingQueue = queueFactory.get();
+        incomingQueue = new AtomicReference<>(queueFactory.get());
+        stats = metered ? new ProcessorStats() : null;
+        deadlineQueue = deadlineScheduling ? new PriorityQueue<>() : null;
+        wheel = metered
+                ? TimingWheel.wheel(System.nanoTime(), stats::timerFired)
+                : TimingWheel.wheel(System.nanoTime());
+    }
 
     public void submit(final RunnablePredicate runnablePredicate) {
-        incomingQueue.get().add(runnablePredicate);
+        submitWithDeadline(NO_DEADLINE, runnablePredicate);
+    }
+
+    /**
+     * Submit task with specified deadline. Deadline is ignored unless processor uses deadline scheduling.
+     *
+     * @param deadlineNanos
+     *        Point in time (as returned by {@link System#nanoTime()}) before which task should be executed or
+     *        {@link #NO_DEADLINE}
+     * @param runnablePredicate
+     *        Task to submit
+     */
+    public void submitWithDeadline(final long deadlineNanos, final RunnablePredicate runnablePredicate) {
+        pending.incrementAndGet();
+        incomingQueue.get().add(prepare(runnablePredicate, deadlineNanos));
+        wakeup();
+    }
+
+    /**
+     * Submit batch of tasks. Counter of pending tasks is updated and worker thread is woken up only once per batch.
+     * Ring buffer queue claims slots for the entire batch with single CAS, while linked queue inserts tasks
+     * one by one.
+     *
+     * @param batch
+     *        Tasks to submit
+     */
+    public void submitAll(final List<RunnablePredicate> batch) {
+        pending.addAndGet(batch.size());
+        incomingQueue.get().addAll(stats == null && deadlineQueue == null ? batch : prepare(batch));
+        wakeup();
+    }
+
+    /**
+     * Submit task only if number of pending tasks is below specified limit.
+     *
+     * @param runnablePredicate
+     *        Task to submit
+     * @param capacity
+     *        Maximal number of pending tasks
+     * @return <code>true</code> if task is accepted
+     */
+    public boolean trySubmit(final RunnablePredicate runnablePredicate, final int capacity) {
+        return trySubmit(runnablePredicate, NO_DEADLINE, capacity);
+    }
+
+    /**
+     * Submit task with specified deadline only if number of pending tasks is below specified limit.
+     *
+     * @param runnablePredicate
+     *        Task to submit
+     * @param deadlineNanos
+     *        Point in time (as returned by {@link System#nanoTime()}) before which task should be executed or
+     *        {@link #NO_DEADLINE}
+     * @param capacity
+     *        Maximal number of pending tasks
+     * @return <code>true</code> if task is accepted
+     */
+    public boolean trySubmit(final RunnablePredicate runnablePredicate, final long deadlineNanos, final int capacity) {
+        int current;
+
+        do {
+            current = pending.get();
+
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!pending.compareAndSet(current, current + 1));
+
+        incomingQueue.get().add(prepare(runnablePredicate, deadlineNanos));
+        wakeup();
+        return true;
+    }
+
+    /**
+     * Replace oldest queued task with specified one. Number of pending tasks remains unchanged, so capacity limit
+     * is never exceeded. Tasks which are already taken by worker thread, including tasks kept in the heap
+     * in deadline scheduling mode, are not replaced.
+     *
+     * @param runnablePredicate
+     *        Task to submit
+     * @param deadlineNanos
+     *        Point in time (as returned by {@link System#nanoTime()}) before which task should be executed or
+     *        {@link #NO_DEADLINE}
+     * @return <code>true</code> if oldest task was dropped and specified task is accepted
+     */
+    public boolean replaceOldest(final RunnablePredicate runnablePredicate, final long deadlineNanos) {
+        var element = processingQueue.poll();
+
+        if (element == null) {
+            element = incomingQueue.get().poll();
+        }
+
+        if (element == null) {
+            return false;
+        }
+
+        incomingQueue.get().add(prepare(runnablePredicate, deadlineNanos));
+        wakeup();
+        return true;
+    }
+
+    /**
+     * Schedule task for execution once specified timeout expires.
+     *
+     * @param timeout
+     *        Timeout after which task will be executed
+     * @param runnable
+     *        Task to execute
+     * @return handle which can be used to cancel the task
+     */
+    public Cancellable submit(final Timeout timeout, final Runnable runnable) {
+        final var handle = wheel.schedule(System.nanoTime() + timeout.nanos(), runnable);
+        wakeup();
+        return handle;
+    }
+
+    /**
+     * Perform single processing round.
+     *
+     * @return number of processed tasks and fired timers. Zero means that there was no work to do.
+     */
+    public int processTimeoutsOnce() {
+        now = System.nanoTime();
+
+        if (clock != null) {
+            clock.tick(now);
+        }
+
+        final int count = wheel.advance(now);
+
+        if (deadlineQueue != null) {
+            return count + processByDeadline();
+        }
+
+        return count + processInOrder();
+    }
+
+    /**
+     * Get snapshot of processor metrics.
+     *
+     * @return metrics snapshot or empty option if metrics are not enabled
+     */
+    public Option<ProcessorMetrics> metrics() {
+        return stats == null ? Option.empty() : Option.option(stats.snapshot(pending()));
+    }
+
+    /**
+     * Add time spent by worker thread on processing. Must be invoked from the worker thread only.
+     *
+     * @param nanos
+     *        Processing time in nanoseconds
+     */
+    public void recordBusy(final long nanos) {
+        busyNanos = busyNanos + nanos;
+    }
+
+    /**
+     * Total time spent by worker thread on processing, as recorded by {@link #recordBusy(long)}.
+     *
+     * @return processing time in nanoseconds
+     */
+    public long busyNanos() {
+        return busyNanos;
+    }
+
+    /**
+     * Approximate number of pending tasks, including one which is being executed.
+     *
+     * @return number of pending tasks
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    /**
+     * Move up to specified number of pending tasks from another processor to this one. Oldest tasks are taken first.
+     *
+     * @param victim
+     *        Processor to take tasks from
+     * @param limit
+     *        Maximal number of tasks to take
+     * @return number of moved tasks
+     */
+    public int stealFrom(final PredicateProcessor victim, final int limit) {
+        int count = 0;
+
+        while (count < limit) {
+            var element = victim.processingQueue.poll();
+
+            if (element == null) {
+                element = victim.incomingQueue.get().poll();
+            }
+
+            if (element == null) {
+                break;
+            }
+
+            incomingQueue.get().add(element);
+            count++;
+        }
+
+        victim.pending.addAndGet(-count);
+        pending.addAndGet(count);
+        return count;
     }
 
-    public void processTimeoutsOnce() {
-        while (true) {
+    /**
+     * Wait for work using provided strategy. Must be invoked from the worker thread only. Waiting is bounded
+     * by the nearest pending timer and provided limit.
+     *
+     * @param strategy
+     *        Wait strategy
+     * @param idleCount
+     *        Number of consecutive idle rounds
+     * @param maxWaitNanos
+     *        Maximal wait time in nanoseconds
+     */
+    public void idle(final WaitStrategy strategy, final int idleCount, final long maxWaitNanos) {
+        waiter = Thread.currentThread();
+
+        if (state != State.STOPPED && !hasPendingTasks()) {
+            if (clock != null) {
+                clock.invalidate();
+            }
+            strategy.idle(idleCount, Math.min(maxWaitNanos, nextTimerNanos()));
+        }
+
+        waiter = null;
+    }
+
+    /**
+     * Stop processing once all pending tasks are processed and wake up worker thread if it is waiting.
+     */
+    public void shutdown() {
+        if (state == State.RUNNING) {
+            state = State.DRAINING;
+        }
+        wakeup();
+    }
+
+    /**
+     * Stop processing after currently executing task and wake up worker thread if it is waiting.
+     */
+    public void shutdownNow() {
+        state = State.STOPPED;
+        wakeup();
+    }
+
+    /**
+     * Check if worker thread should continue processing. Must be invoked from the worker thread only.
+     *
+     * @return <code>true</code> if processor is not shut down or there are tasks which should be processed before
+     * shutdown is complete
+     */
+    public boolean isActive() {
+        switch (state) {
+            case RUNNING:
+                return true;
+            case DRAINING:
+                return pending() > 0 || wheel.size() > 0 || wheel.hasIncoming();
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Remove all tasks which are not processed yet, including delayed ones. Must be invoked only when worker thread
+     * is stopped.
+     *
+     * @return list of removed tasks
+     */
+    public List<RunnablePredicate> drain() {
+        final var result = new ArrayList<RunnablePredicate>();
+
+        for (final var queue : List.of(processingQueue, incomingQueue.get())) {
+            RunnablePredicate element;
+
+            while ((element = queue.poll()) != null) {
+                result.add(original(element));
+            }
+        }
+
+        if (deadlineQueue != null) {
+            while (!deadlineQueue.isEmpty()) {
+                result.add(original(deadlineQueue.poll()));
+            }
+        }
+
+        for (final var runnable : wheel.drain()) {
+            result.add(nanoTime -> {
+                runnable.run();
+                return true;
+            });
+        }
+
+        pending.set(0);
+        return result;
+    }
+
+    private int processInOrder() {
+        int count = 0;
+
+        while (state != State.STOPPED) {
             final var element = processingQueue.poll();
             if (element == null) {
                 swapQueues();
-                return;
+                return count;
+            }
+
+            count++;
+            final var remaining = execute(element);
+
+            if (remaining == null) {
+                pending.decrementAndGet();
+            } else {
+                incomingQueue.get().add(remaining);
             }
+        }
+        return count;
+    }
+
+    /**
+     * Execute every task from the heap at most once, in the order of deadlines. Newly submitted tasks are picked up
+     * after every executed task, so urgent tasks do not wait until end of the round.
+     */
+    private int processByDeadline() {
+        transferToDeadlineQueue();
+
+        final int limit = deadlineQueue.size();
+        int count = 0;
+
+        while (count < limit && state != State.STOPPED) {
+            final var element = deadlineQueue.poll();
+            if (element == null) {
+                break;
+            }
+
+            count++;
+            final var remaining = execute(element.task);
 
-            if (!element.isDone(System.nanoTime())) {
-                submit(element);
+            if (remaining == null) {
+                pending.decrementAndGet();
+            } else {
+                element.task = remaining;
+                deferred.add(element);
             }
+
+            transferToDeadlineQueue();
+        }
+
+        for (final var element : deferred) {
+            enqueue(element);
+        }
+        deferred.clear();
+
+        return count;
+    }
+
+    private void transferToDeadlineQueue() {
+        RunnablePredicate element;
+
+        while ((element = incomingQueue.get().poll()) != null) {
+            enqueue((DeadlineTask) element);
+        }
+    }
+
+    private void enqueue(final DeadlineTask element) {
+        element.sequence = sequence++;
+        deadlineQueue.add(element);
+    }
+
+    /**
+     * Run single task. Deadline of {@link ExpirableTask} is checked only before the first execution, task which is
+     * not done after it is executed again without deadline, so once started task is never discarded.
+     *
+     * @return <code>null</code> if task is done or task which should be executed again
+     */
+    private RunnablePredicate execute(final RunnablePredicate element) {
+        if (stats == null) {
+            return expired(element, now) || element.isDone(now) ? null : started(element);
+        }
+
+        final long start = System.nanoTime();
+        final var task = stats.unwrap(element, start);
+
+        if (expired(task, start)) {
+            stats.shed();
+            return null;
+        }
+
+        final boolean done = task.isDone(start);
+
+        stats.executed(start, System.nanoTime(), done);
+
+        return done ? null : started(task);
+    }
+
+    private static RunnablePredicate started(final RunnablePredicate task) {
+        return task instanceof ExpirableTask ? task::isDone : task;
+    }
+
+    /**
+     * Check if task deadline is passed and notify task if so.
+     *
+     * @return <code>true</code> if task should be discarded
+     */
+    private boolean expired(final RunnablePredicate task, final long nanoTime) {
+        if (!(task instanceof ExpirableTask) || nanoTime - ((ExpirableTask) task).deadline() <= 0) {
+            return false;
+        }
+
+        ((ExpirableTask) task).expired();
+        return true;
+    }
+
+    private RunnablePredicate prepare(final RunnablePredicate runnablePredicate, final long deadlineNanos) {
+        final var task = stats == null ? runnablePredicate : stats.submitted(runnablePredicate);
+
+        if (deadlineQueue == null) {
+            return task;
+        }
+
+        return new DeadlineTask(deadlineNanos == NO_DEADLINE ? defaultDeadline() : deadlineNanos, task);
+    }
+
+    private List<RunnablePredicate> prepare(final List<RunnablePredicate> batch) {
+        final var prepared = new ArrayList<RunnablePredicate>(batch.size());
+
+        for (final var runnablePredicate : batch) {
+            prepared.add(prepare(runnablePredicate, NO_DEADLINE));
+        }
+        return prepared;
+    }
+
+    private static RunnablePredicate original(final RunnablePredicate element) {
+        final var task = element instanceof DeadlineTask ? ((DeadlineTask) element).task : element;
+
+        return ProcessorStats.original(task);
+    }
+
+    private static long defaultDeadline() {
+        return System.nanoTime() + Priority.NORMAL.deadline().nanos();
+    }
+
+    private long nextTimerNanos() {
+        final long nextAdvance = wheel.nextAdvanceNanos();
+
+        return nextAdvance == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(nextAdvance - System.nanoTime(), 0);
+    }
+
+    private boolean hasPendingTasks() {
+        return !processingQueue.isEmpty()
+               || !incomingQueue.get().isEmpty()
+               || wheel.hasIncoming()
+               || (deadlineQueue != null && !deadlineQueue.isEmpty());
+    }
+
+    private void wakeup() {
+        final var thread = waiter;
+
+        if (thread != null) {
+            LockSupport.unpark(thread);
         }
     }
 
     private void swapQueues() {
         processingQueue = incomingQueue.compareAndExchange(incomingQueue.get(), processingQueue);
     }
+
+    private enum State {
+        RUNNING,
+        DRAINING,
+        STOPPED
+    }
+
+    /**
+     * Task with deadline. Tasks with same deadline are ordered by the time they were placed into the heap.
+     */
+    private static final class DeadlineTask implements RunnablePredicate, Comparable<DeadlineTask> {
+        private final long deadline;
+        private RunnablePredicate task;
+        private long sequence;
+
+        private DeadlineTask(final long deadline, final RunnablePredicate task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        @Override
+        public boolean isDone(final long nanoTime) {
+            return task.isDone(nanoTime);
+        }
+
+        @Override
+        public int compareTo(final DeadlineTask other) {
+            final long difference = deadline - other.deadline;
+
+            return difference != 0 ? Long.signum(difference) : Long.compare(sequence, other.sequence);
+        }
+    }
 }
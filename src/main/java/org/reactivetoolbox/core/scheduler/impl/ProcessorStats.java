@@ -0,0 +1,111 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.scheduler.ProcessorMetrics;
+import org.reactivetoolbox.core.scheduler.RunnablePredicate;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics collected by single {@link PredicateProcessor}. Submission counter is updated by producer threads and
+ * therefore is striped, remaining values are updated by worker thread only.
+ */
+final class ProcessorStats {
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder resubmitted = new LongAdder();
+    private final LongAdder timersFired = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LatencyRecorder queueLatency = new LatencyRecorder();
+    private final LatencyRecorder executionTime = new LatencyRecorder();
+    private final LatencyRecorder timerLateness = new LatencyRecorder();
+
+    /**
+     * Count submitted task and attach submission time to it.
+     */
+    RunnablePredicate submitted(final RunnablePredicate task) {
+        submitted.increment();
+        return new MeteredTask(task, System.nanoTime());
+    }
+
+    /**
+     * Record queue latency if task is executed first time and return original task.
+     */
+    RunnablePredicate unwrap(final RunnablePredicate task, final long nanoTime) {
+        if (task instanceof MeteredTask) {
+            final var metered = (MeteredTask) task;
+
+            queueLatency.record(nanoTime - metered.enqueuedAt);
+            return metered.task;
+        }
+        return task;
+    }
+
+    /**
+     * Get original task without recording anything.
+     */
+    static RunnablePredicate original(final RunnablePredicate task) {
+        return task instanceof MeteredTask ? ((MeteredTask) task).task : task;
+    }
+
+    void executed(final long startNanos, final long endNanos, final boolean done) {
+        executionTime.record(endNanos - startNanos);
+
+        if (done) {
+            completed.increment();
+        } else {
+            resubmitted.increment();
+        }
+    }
+
+    void shed() {
+        shed.increment();
+    }
+
+    void timerFired(final long lateness) {
+        timersFired.increment();
+        timerLateness.record(lateness);
+    }
+
+    ProcessorMetrics snapshot(final int queueDepth) {
+        return ProcessorMetrics.processorMetrics(queueDepth,
+                                                 submitted.sum(),
+                                                 completed.sum(),
+                                                 resubmitted.sum(),
+                                                 timersFired.sum(),
+                                                 shed.sum(),
+                                                 queueLatency.snapshot(),
+                                                 executionTime.snapshot(),
+                                                 timerLateness.snapshot());
+    }
+
+    private static final class MeteredTask implements RunnablePredicate {
+        private final RunnablePredicate task;
+        private final long enqueuedAt;
+
+        private MeteredTask(final RunnablePredicate task, final long enqueuedAt) {
+            this.task = task;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        @Override
+        public boolean isDone(final long nanoTime) {
+            return task.isDone(nanoTime);
+        }
+    }
+}
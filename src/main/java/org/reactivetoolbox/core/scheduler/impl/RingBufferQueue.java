@@ -0,0 +1,385 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Array-backed bounded lock-free queue (D. Vyukov's algorithm). Every slot has its own sequence number, so producers
+ * and consumers do not need to allocate anything and only contend on the head and tail indexes, which are padded
+ * in order to avoid false sharing.
+ * <br>
+ * Queue is optimized for many producers and single consumer, but consumers also use CAS, so elements can be safely
+ * taken from other threads (for example, by work stealing processors). Once ring is full, elements are placed into
+ * unbounded linked overflow queue, so {@link #offer(Object)} never fails. {@link #addAll(Collection)} claims
+ * contiguous range of slots for entire batch with single CAS. Note that in this case elements from
+ * the ring and from the overflow queue are not strictly ordered relative to each other.
+ * <br>
+ * Iterators are weakly consistent: they traverse elements present in the ring at the moment of iterator creation
+ * and then elements of the overflow queue, never throw {@link java.util.ConcurrentModificationException} and may
+ * or may not reflect modifications made after creation. Elements removed via {@link Iterator#remove()} (and
+ * therefore via {@link #remove(Object)}, {@link #removeAll(Collection)}, etc.) are replaced with a marker which
+ * is skipped by consumers.
+ *
+ * @param <T>
+ *        Type of elements
+ */
+public class RingBufferQueue<T> extends RingBufferQueuePad2<T> {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<RingBufferQueueTail> TAIL =
+            AtomicLongFieldUpdater.newUpdater(RingBufferQueueTail.class, "tail");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<RingBufferQueueHead> HEAD =
+            AtomicLongFieldUpdater.newUpdater(RingBufferQueueHead.class, "head");
+
+    private static final Object REMOVED = new Object();
+
+    private final AtomicReferenceArray<Object> buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final Queue<T> overflow = new ConcurrentLinkedQueue<>();
+
+    private RingBufferQueue(final int capacity) {
+        buffer = new AtomicReferenceArray<>(capacity);
+        sequences = new AtomicLongArray(capacity);
+        mask = capacity - 1;
+
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Create queue with specified ring capacity. Capacity is rounded up to the nearest power of two.
+     * <br>
+     * Minimal capacity is 2: with single slot the sequence number which marks slot as free for next producer
+     * is indistinguishable from the one which marks it as filled for consumer.
+     *
+     * @param capacity
+     *        Ring capacity, at least 2
+     * @param <T>
+     *        Type of elements
+     * @return created queue
+     */
+    public static <T> RingBufferQueue<T> ringBuffer(final int capacity) {
+        if (capacity < 2 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Ring buffer capacity must be in range 2.." + (1 << 30));
+        }
+        return new RingBufferQueue<>(ceilingPowerOfTwo(capacity));
+    }
+
+    @Override
+    public boolean offer(final T element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+
+        if (!offerToRing(element)) {
+            overflow.add(element);
+        }
+        return true;
+    }
+
+    /**
+     * Add all elements at once. Free slots for entire batch are claimed with single CAS, elements which do not fit
+     * into the ring are placed into the overflow queue.
+     *
+     * @param elements
+     *        Elements to add
+     * @return <code>true</code> if queue was changed
+     */
+    @Override
+    public boolean addAll(final Collection<? extends T> elements) {
+        if (elements == this) {
+            throw new IllegalArgumentException();
+        }
+
+        final var batch = elements.toArray();
+
+        for (final var element : batch) {
+            if (element == null) {
+                throw new NullPointerException();
+            }
+        }
+
+        int added = 0;
+
+        while (added < batch.length) {
+            long pos;
+            int count;
+
+            do {
+                pos = tail;
+                count = freeSlots(pos, batch.length - added);
+            } while (count < 0 || (count > 0 && !TAIL.compareAndSet(this, pos, pos + count)));
+
+            if (count == 0) {
+                break;
+            }
+
+            for (int i = 0; i < count; i++) {
+                final int index = (int) ((pos + i) & mask);
+                buffer.set(index, batch[added + i]);
+                sequences.set(index, pos + i + 1);
+            }
+            added += count;
+        }
+
+        for (int i = added; i < batch.length; i++) {
+            overflow.add(uncheckedCast(batch[i]));
+        }
+        return batch.length > 0;
+    }
+
+    @Override
+    public T poll() {
+        final T element = pollFromRing();
+
+        return element != null ? element : overflow.poll();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        final long start = head;
+
+        for (long pos = start; pos - start < mask + 1; pos++) {
+            final int index = (int) (pos & mask);
+
+            if (sequences.get(index) != pos + 1) {
+                break;
+            }
+
+            final var element = buffer.get(index);
+
+            if (element != REMOVED) {
+                if (element != null) {
+                    return (T) element;
+                }
+                break;
+            }
+        }
+        return overflow.peek();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return peek() == null;
+    }
+
+    /**
+     * Approximate number of elements in queue.
+     *
+     * @return number of elements
+     */
+    @Override
+    public int size() {
+        return (int) Math.max(0, Math.min(tail - head, mask + 1)) + overflow.size();
+    }
+
+    /**
+     * Weakly consistent iterator over elements in the ring and then in the overflow queue.
+     *
+     * @return iterator
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new RingIterator();
+    }
+
+    private boolean offerToRing(final T element) {
+        long pos = tail;
+
+        while (true) {
+            final int index = (int) (pos & mask);
+            final long difference = sequences.get(index) - pos;
+
+            if (difference == 0) {
+                if (TAIL.compareAndSet(this, pos, pos + 1)) {
+                    buffer.set(index, element);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+            pos = tail;
+        }
+    }
+
+    /**
+     * Count free slots starting from specified position.
+     *
+     * @return number of free slots up to specified limit or -1 if position is already claimed by another producer
+     */
+    private int freeSlots(final long pos, final int limit) {
+        if (sequences.get((int) (pos & mask)) - pos > 0) {
+            return -1;
+        }
+
+        int count = 0;
+        while (count < limit && count <= mask && sequences.get((int) ((pos + count) & mask)) == pos + count) {
+            count++;
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T uncheckedCast(final Object element) {
+        return (T) element;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T pollFromRing() {
+        long pos = head;
+
+        while (true) {
+            final int index = (int) (pos & mask);
+            final long difference = sequences.get(index) - (pos + 1);
+
+            if (difference == 0) {
+                if (HEAD.compareAndSet(this, pos, pos + 1)) {
+                    final var element = buffer.getAndSet(index, null);
+                    sequences.set(index, pos + mask + 1);
+
+                    if (element != REMOVED) {
+                        return (T) element;
+                    }
+                }
+            } else if (difference < 0) {
+                return null;
+            }
+            pos = head;
+        }
+    }
+
+    private static int ceilingPowerOfTwo(final int value) {
+        return Integer.highestOneBit(value - 1) << 1;
+    }
+
+    private final class RingIterator implements Iterator<T> {
+        private final long end = tail;
+        private long pos = head;
+        private Iterator<T> overflowIterator;
+        private Object next;
+        private long nextPos;
+        private Object last;
+        private long lastPos;
+
+        private RingIterator() {
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null || (overflowIterator != null && overflowIterator.hasNext());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (next == null) {
+                last = overflowIterator == null ? null : overflowIterator.next();
+                lastPos = -1;
+                return (T) last;
+            }
+
+            last = next;
+            lastPos = nextPos;
+            advance();
+            return (T) last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+
+            if (lastPos < 0) {
+                overflowIterator.remove();
+            } else {
+                final int index = (int) (lastPos & mask);
+
+                // Element could be already taken by consumer, in this case there is nothing to remove
+                if (sequences.get(index) == lastPos + 1) {
+                    buffer.compareAndSet(index, last, REMOVED);
+                }
+            }
+            last = null;
+        }
+
+        private void advance() {
+            next = null;
+
+            while (pos < end) {
+                final long current = pos++;
+                final int index = (int) (current & mask);
+
+                if (sequences.get(index) == current + 1) {
+                    final var element = buffer.get(index);
+
+                    if (element != null && element != REMOVED && sequences.get(index) == current + 1) {
+                        next = element;
+                        nextPos = current;
+                        return;
+                    }
+                }
+            }
+
+            overflowIterator = overflow.iterator();
+        }
+    }
+}
+
+/*
+ * Padding classes. JVM does not reorder fields across class hierarchy, so head and tail indexes are guaranteed
+ * to reside in different cache lines and do not share them with other fields.
+ */
+@SuppressWarnings("unused")
+abstract class RingBufferQueuePad0<T> extends AbstractQueue<T> {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class RingBufferQueueTail<T> extends RingBufferQueuePad0<T> {
+    volatile long tail;
+}
+
+@SuppressWarnings("unused")
+abstract class RingBufferQueuePad1<T> extends RingBufferQueueTail<T> {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class RingBufferQueueHead<T> extends RingBufferQueuePad1<T> {
+    volatile long head;
+}
+
+@SuppressWarnings("unused")
+abstract class RingBufferQueuePad2<T> extends RingBufferQueueHead<T> {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
@@ -0,0 +1,133 @@
+package org.reactivetoolbox.core.scheduler.impl;
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.scheduler.KeyedExecutor;
+import org.reactivetoolbox.core.scheduler.RunnablePredicate;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation of {@link KeyedExecutor}. Every active key has its own {@link KeyedQueue}. Submission which moves
+ * counter of the new key from zero submits single drain task for the key to the underlying scheduler. Drain task
+ * executes tasks of the key one by one and yields to the scheduler after a batch of tasks, so keys with long
+ * sequences of tasks do not starve the others. Since there is at most one drain task per key, tasks of the same
+ * key never overlap. Once the last pending task is done, drain task retires the key.
+ * <br>
+ * If underlying scheduler rejects drain task, exactly the task added by the rejected submission is removed and
+ * exception is rethrown to the caller. Tasks which were concurrently submitted for the same key in the meantime are
+ * already accepted, so they remain queued and drain task for them is submitted by the next submission for the key.
+ */
+public final class SerialKeyedExecutor implements KeyedExecutor {
+    private static final int DRAIN_BATCH = 64;
+
+    private final TaskScheduler scheduler;
+    private final ConcurrentMap<Object, Serial> serials = new ConcurrentHashMap<>();
+
+    private SerialKeyedExecutor(final TaskScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    public static SerialKeyedExecutor serial(final TaskScheduler scheduler) {
+        return new SerialKeyedExecutor(scheduler);
+    }
+
+    @Override
+    public KeyedExecutor submit(final Object key, final Runnable task) {
+        while (true) {
+            final var serial = serials.computeIfAbsent(key, Serial::new);
+            final int pending = serial.reserve();
+
+            if (pending == KeyedQueue.RETIRED) {
+                continue;
+            }
+
+            if (pending > 0 && !serial.orphaned.compareAndSet(true, false)) {
+                serial.add(task);
+                return this;
+            }
+
+            // Unique instance, so rollback removes exactly the task added by this call
+            final Runnable ticket = task::run;
+
+            serial.add(ticket);
+
+            try {
+                scheduler.submit(serial);
+            } catch (final RuntimeException e) {
+                serial.rollback(ticket);
+                throw e;
+            }
+            return this;
+        }
+    }
+
+    @Override
+    public int activeKeys() {
+        return serials.size();
+    }
+
+    /**
+     * State of the single key. Serves also as drain task for the key.
+     */
+    private final class Serial extends KeyedQueue<Runnable> implements RunnablePredicate {
+        private final AtomicBoolean orphaned = new AtomicBoolean();
+
+        private Serial(final Object key) {
+            super(serials, key);
+        }
+
+        @Override
+        public boolean isDone(final long nanoTime) {
+            for (int i = 0; i < DRAIN_BATCH; i++) {
+                final var task = poll();
+
+                if (task == null) {
+                    // Counter is already incremented, but task is not added to the queue yet
+                    return false;
+                }
+
+                run(task);
+
+                if (release(1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Undo submission which failed to schedule drain task. Tasks of other submitters are left for the drain
+         * task started by the next submission.
+         */
+        private void rollback(final Runnable ticket) {
+            removeExact(ticket);
+            orphaned.set(true);
+            release(1);
+        }
+
+        private void run(final Runnable task) {
+            try {
+                task.run();
+            } catch (final Throwable t) {
+                scheduler.logger().debug("Error while running keyed task", t);
+            }
+        }
+    }
+}
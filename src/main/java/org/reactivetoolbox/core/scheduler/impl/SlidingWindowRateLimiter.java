@@ -0,0 +1,149 @@
+package org.reactivetoolbox.core.scheduler.impl;
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.async.Promise;
+import org.reactivetoolbox.core.lang.Unit;
+import org.reactivetoolbox.core.scheduler.RateLimiter;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+import org.reactivetoolbox.core.scheduler.Timeout;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Sliding window rate limiter. Limiter keeps grant times of the last <code>permits</code> permits in the linked
+ * list. Permit number <code>N</code> is granted not earlier than window length after permit number
+ * <code>N - permits</code> and not earlier than permit number <code>N - 1</code>, so grant times never decrease.
+ * <br>
+ * Every node of the list keeps reference to the oldest node of its window, so grant time of permit
+ * <code>N - permits</code> is available without traversal. Permit is reserved with single CAS which appends new
+ * node to the last one. Reference to the last node is moved forward by any thread which observes it lagging behind,
+ * so no thread waits for progress of another one. Nodes which fall out of the window are not referenced anymore
+ * and are collected by garbage collector.
+ * <br>
+ * Time is read from the {@link TaskScheduler#nanoTime()}, so limiter works with virtual time schedulers as well.
+ */
+public final class SlidingWindowRateLimiter implements RateLimiter {
+    private static final long NO_GRANT = Long.MIN_VALUE;
+
+    private final TaskScheduler scheduler;
+    private final long windowNanos;
+    private final AtomicReference<Grant> last;
+
+    private SlidingWindowRateLimiter(final TaskScheduler scheduler, final int permits, final long windowNanos) {
+        this.scheduler = scheduler;
+        this.windowNanos = windowNanos;
+
+        final var first = new Grant(NO_GRANT, null);
+        var node = first;
+
+        for (int i = 1; i < permits; i++) {
+            node.next = new Grant(NO_GRANT, first);
+            node = node.next;
+        }
+        last = new AtomicReference<>(node);
+    }
+
+    public static SlidingWindowRateLimiter slidingWindow(final TaskScheduler scheduler, final int permits,
+                                                         final Timeout window) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("Number of permits must be positive");
+        }
+        return new SlidingWindowRateLimiter(scheduler, permits, window.nanos());
+    }
+
+    @Override
+    public Promise<Unit> acquire() {
+        while (true) {
+            final var tail = tail();
+            final long now = scheduler.nanoTime();
+            final long grant = grantTime(tail, now);
+
+            if (append(tail, grant)) {
+                return Permits.grantAfter(scheduler, grant - now);
+            }
+        }
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        while (true) {
+            final var tail = tail();
+            final long now = scheduler.nanoTime();
+
+            if (grantTime(tail, now) - now > 0) {
+                return false;
+            }
+
+            if (append(tail, now)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Get last node of the list, moving reference to it forward if necessary.
+     */
+    private Grant tail() {
+        while (true) {
+            final var tail = last.get();
+            final var next = tail.next;
+
+            if (next == null) {
+                return tail;
+            }
+            last.compareAndSet(tail, next);
+        }
+    }
+
+    private long grantTime(final Grant tail, final long now) {
+        final long previous = tail.oldest.time;
+        final long earliest = previous == NO_GRANT ? now : Math.max(now, previous + windowNanos);
+
+        return tail.time == NO_GRANT ? earliest : Math.max(earliest, tail.time);
+    }
+
+    private boolean append(final Grant tail, final long grant) {
+        final var oldest = tail.oldest == tail ? null : tail.oldest.next;
+        final var node = new Grant(grant, oldest);
+
+        if (!Grant.NEXT.compareAndSet(tail, null, node)) {
+            return false;
+        }
+
+        last.compareAndSet(tail, node);
+        return true;
+    }
+
+    /**
+     * Grant time of single permit. Node keeps reference to the oldest node of the window which ends with this node,
+     * i.e. to the node which was appended <code>permits - 1</code> nodes earlier.
+     */
+    private static final class Grant {
+        private static final AtomicReferenceFieldUpdater<Grant, Grant> NEXT =
+                AtomicReferenceFieldUpdater.newUpdater(Grant.class, Grant.class, "next");
+
+        private final long time;
+        private final Grant oldest;
+        private volatile Grant next;
+
+        private Grant(final long time, final Grant oldest) {
+            this.time = time;
+            this.oldest = oldest == null ? this : oldest;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Factory for executors which start new thread for every task. This version is used on Java versions prior to 21,
+ * where virtual threads are not available, so threads are pooled daemon platform threads.
+ * <br>
+ * Java 21 version of this class is located in <code>src/main/java21</code> and packaged into multi-release jar.
+ */
+final class ThreadPerTaskExecutors {
+    private ThreadPerTaskExecutors() {
+    }
+
+    static ExecutorService executor(final String namePattern) {
+        return Executors.newCachedThreadPool(DaemonThreadFactory.of(namePattern));
+    }
+}
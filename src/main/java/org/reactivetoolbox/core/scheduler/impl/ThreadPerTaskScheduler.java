@@ -0,0 +1,185 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.lang.List;
+import org.reactivetoolbox.core.log.CoreLogger;
+import org.reactivetoolbox.core.meta.AppMetaRepository;
+import org.reactivetoolbox.core.scheduler.BlockingTaskScheduler;
+import org.reactivetoolbox.core.scheduler.Cancellable;
+import org.reactivetoolbox.core.scheduler.RunnablePredicate;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+import org.reactivetoolbox.core.scheduler.Timeout;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Implementation of {@link BlockingTaskScheduler} which runs every task on separate thread. Threads are provided
+ * by {@link ThreadPerTaskExecutors}, which uses virtual threads on Java 21 and later.
+ * <br>
+ * Since every task owns its thread, delayed tasks just park until timeout expires and {@link RunnablePredicate}
+ * tasks are re-checked with short pauses in between. Cancellation of delayed task wakes up its thread, so cancelled
+ * tasks release their threads immediately.
+ */
+public class ThreadPerTaskScheduler implements BlockingTaskScheduler {
+    private static final long PREDICATE_RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ExecutorService executor;
+
+    private ThreadPerTaskScheduler(final ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public static ThreadPerTaskScheduler threadPerTask() {
+        return new ThreadPerTaskScheduler(ThreadPerTaskExecutors.executor("Blocking Task Thread #%d"));
+    }
+
+    @Override
+    public TaskScheduler submit(final RunnablePredicate predicate) {
+        return start(() -> {
+            while (!predicate.isDone(System.nanoTime())) {
+                LockSupport.parkNanos(PREDICATE_RECHECK_NANOS);
+            }
+        });
+    }
+
+    @Override
+    public TaskScheduler submit(final Runnable runnable) {
+        return start(runnable);
+    }
+
+    @Override
+    public TaskScheduler submit(final Timeout timeout, final Runnable runnable) {
+        schedule(timeout, runnable);
+        return this;
+    }
+
+    @Override
+    public Cancellable schedule(final Timeout timeout, final Runnable runnable) {
+        final var task = new ParkedTask(System.nanoTime() + timeout.nanos(), runnable);
+
+        start(task::await);
+        return task;
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public boolean awaitTermination(final Timeout timeout) {
+        try {
+            return executor.awaitTermination(timeout.timeout(), TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br>
+     * Running tasks are interrupted, so delayed tasks which are waiting for their timeouts are not executed.
+     * Since every task runs in its own thread, there are no queued tasks and returned list is always empty.
+     */
+    @Override
+    public List<RunnablePredicate> shutdownNow() {
+        executor.shutdownNow();
+        return List.list();
+    }
+
+    @Override
+    public CoreLogger logger() {
+        return SingletonHolder.logger();
+    }
+
+    private TaskScheduler start(final Runnable runnable) {
+        try {
+            executor.execute(() -> {
+                try {
+                    runnable.run();
+                } catch (final Throwable t) {
+                    logger().debug("Error while running blocking task", t);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            throw new IllegalStateException("Attempt to submit new task after scheduler is shut down", e);
+        }
+        return this;
+    }
+
+    /**
+     * Delayed task which parks its thread until deadline. Cancellation unparks the thread, so it does not wait for
+     * the deadline of the task which will never be executed.
+     */
+    private final class ParkedTask implements Cancellable {
+        private final long deadline;
+        private final DelayedTask task;
+        private volatile Thread thread;
+
+        private ParkedTask(final long deadline, final Runnable runnable) {
+            this.deadline = deadline;
+            this.task = DelayedTask.delayedTask(deadline, runnable);
+        }
+
+        private void await() {
+            thread = Thread.currentThread();
+
+            long now;
+
+            // Task is done once it is executed or cancelled
+            while (!task.isDone(now = System.nanoTime())) {
+                if (Thread.interrupted()) {
+                    logger().debug("Delayed task interrupted");
+                    return;
+                }
+                LockSupport.parkNanos(this, deadline - now);
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!task.cancel()) {
+                return false;
+            }
+
+            final var sleeper = thread;
+
+            if (sleeper != null) {
+                LockSupport.unpark(sleeper);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return task.isCancelled();
+        }
+    }
+
+    private static final class SingletonHolder {
+        private static final CoreLogger LOGGER = AppMetaRepository.instance().get(CoreLogger.class);
+
+        static CoreLogger logger() {
+            return LOGGER;
+        }
+    }
+}
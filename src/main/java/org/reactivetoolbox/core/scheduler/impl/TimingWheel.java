@@ -0,0 +1,494 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.log.CoreLogger;
+import org.reactivetoolbox.core.meta.AppMetaRepository;
+import org.reactivetoolbox.core.scheduler.Cancellable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel for delayed tasks. Each level of the wheel consists of {@value #LEVEL_SIZE} buckets,
+ * the lowest level bucket covers single tick ({@value #TICK_MILLIS}ms), every next level bucket covers entire span of
+ * the previous level. Timers are placed into the level which matches remaining delay and moved (cascaded) to lower
+ * levels only when their bucket comes due, so insertion and expiration cost O(1) and pending timers are not touched
+ * until they get close to their deadline. Timers with delays beyond the range of the wheel are parked in the most
+ * distant bucket of the highest level and re-cascaded until they get into range.
+ * <br>
+ * New timers can be scheduled and cancelled from any thread, but {@link #advance(long)} must be invoked from
+ * the single owner thread only. Cancelled timers are collected into separate stack and unlinked from their buckets
+ * in O(1) by the owner thread during next {@link #advance(long)}, so they do not retain memory until their deadline.
+ */
+public class TimingWheel {
+    private static final int LEVEL_BITS = 6;
+    private static final int LEVEL_SIZE = 1 << LEVEL_BITS;
+    private static final int LEVEL_MASK = LEVEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (LEVEL_BITS * LEVELS);
+    private static final long TICK_MILLIS = 1;
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+
+    private final TimerNode[][] buckets = new TimerNode[LEVELS][LEVEL_SIZE];
+    private final AtomicReference<TimerNode> incoming = new AtomicReference<>();
+    private final AtomicReference<TimerNode> cancelled = new AtomicReference<>();
+    private final long origin;
+    private final LongConsumer latenessListener;
+    private long currentTick = 0;
+    private int size = 0;
+
+    private TimingWheel(final long origin, final LongConsumer latenessListener) {
+        this.origin = origin;
+        this.latenessListener = latenessListener;
+
+        for (final var level : buckets) {
+            for (int i = 0; i < level.length; i++) {
+                level[i] = TimerNode.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Create wheel which counts ticks starting from specified point in time.
+     *
+     * @param originNanos
+     *        Starting point in time, as returned by {@link System#nanoTime()}
+     * @return created instance
+     */
+    public static TimingWheel wheel(final long originNanos) {
+        return new TimingWheel(originNanos, null);
+    }
+
+    /**
+     * Create wheel which counts ticks starting from specified point in time and reports lateness of every fired timer,
+     * i.e. difference in nanoseconds between actual and requested (rounded up to the tick) execution time.
+     *
+     * @param originNanos
+     *        Starting point in time, as returned by {@link System#nanoTime()}
+     * @param latenessListener
+     *        Listener which receives lateness of fired timers
+     * @return created instance
+     */
+    public static TimingWheel wheel(final long originNanos, final LongConsumer latenessListener) {
+        return new TimingWheel(originNanos, latenessListener);
+    }
+
+    /**
+     * Schedule task for execution once specified point in time is reached. This method can be safely invoked
+     * from any thread.
+     *
+     * @param deadlineNanos
+     *        Point in time (as returned by {@link System#nanoTime()}) after which task should be executed
+     * @param runnable
+     *        Task to execute
+     * @return handle which can be used to cancel the task
+     */
+    public Cancellable schedule(final long deadlineNanos, final Runnable runnable) {
+        final var node = new TimerNode(this, ceilTick(deadlineNanos), runnable);
+
+        TimerNode head;
+        do {
+            head = incoming.get();
+            node.nextIncoming = head;
+        } while (!incoming.compareAndSet(head, node));
+
+        return node;
+    }
+
+    /**
+     * Advance wheel up to specified point in time and run all timers which are due. Must be invoked from the owner
+     * thread only.
+     *
+     * @param nanoTime
+     *        Current time as returned by {@link System#nanoTime()}
+     * @return number of timers which were fired
+     */
+    public int advance(final long nanoTime) {
+        int fired = transferIncoming();
+
+        removeCancelled();
+
+        final long targetTick = floorTick(nanoTime);
+
+        while (currentTick <= targetTick) {
+            if (size == 0) {
+                currentTick = targetTick + 1;
+                break;
+            }
+
+            cascade();
+            fired += expire(buckets[0][(int) (currentTick & LEVEL_MASK)]);
+            currentTick++;
+        }
+
+        return fired;
+    }
+
+    /**
+     * Number of pending timers known to owner thread. Timers which are scheduled but not yet picked up by
+     * {@link #advance(long)} are not counted.
+     *
+     * @return number of pending timers
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove all pending timers without firing them. Timers are marked as cancelled. Must be invoked from the owner
+     * thread only or after owner thread is stopped.
+     *
+     * @return tasks of removed timers in the order of their deadlines
+     */
+    public List<Runnable> drain() {
+        final var nodes = new ArrayList<TimerNode>();
+
+        cancelled.set(null);
+
+        for (final var level : buckets) {
+            for (final var bucket : level) {
+                for (var node = bucket.detachAll(); node != null; node = node.next) {
+                    nodes.add(node);
+                }
+            }
+        }
+
+        for (var node = reverse(incoming.getAndSet(null)); node != null; node = node.nextIncoming) {
+            nodes.add(node);
+        }
+
+        nodes.sort(Comparator.comparingLong(node -> node.deadline));
+        size = 0;
+
+        final var result = new ArrayList<Runnable>();
+
+        for (final var node : nodes) {
+            final var runnable = node.runnable;
+
+            node.detached();
+            node.runnable = null;
+
+            if (node.abandon()) {
+                result.add(runnable);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Check if there are timers scheduled but not yet picked up by {@link #advance(long)}.
+     *
+     * @return <code>true</code> if there are such timers
+     */
+    public boolean hasIncoming() {
+        return incoming.get() != null;
+    }
+
+    /**
+     * Point in time when {@link #advance(long)} should be invoked next in order to fire timers without delay. Returned
+     * value is conservative, i.e. it may be earlier than actual deadline of the nearest timer, but never later.
+     * Must be invoked from the owner thread only.
+     *
+     * @return point in time (as returned by {@link System#nanoTime()}) or {@link Long#MAX_VALUE} if there are
+     * no pending timers
+     */
+    public long nextAdvanceNanos() {
+        if (size == 0) {
+            return Long.MAX_VALUE;
+        }
+
+        final long boundary = (currentTick | LEVEL_MASK) + 1;
+
+        for (long tick = currentTick; tick < boundary; tick++) {
+            if (!buckets[0][(int) (tick & LEVEL_MASK)].isEmpty()) {
+                return origin + tick * TICK_NANOS;
+            }
+        }
+        return origin + boundary * TICK_NANOS;
+    }
+
+    private int transferIncoming() {
+        var node = reverse(incoming.getAndSet(null));
+        int fired = 0;
+
+        while (node != null) {
+            final var next = node.nextIncoming;
+            node.nextIncoming = null;
+
+            if (node.isCancelled()) {
+                node.runnable = null;
+            } else if (node.deadline < currentTick) {
+                fired += run(node);
+            } else {
+                place(node);
+                size++;
+            }
+            node = next;
+        }
+
+        return fired;
+    }
+
+    private void removeCancelled() {
+        var node = cancelled.getAndSet(null);
+
+        while (node != null) {
+            final var next = node.nextCancelled;
+            node.nextCancelled = null;
+
+            if (node.unlink()) {
+                size--;
+            }
+            node = next;
+        }
+    }
+
+    /**
+     * Incoming timers are collected in LIFO order, restore original order so timers with same deadline are fired
+     * in the order they were scheduled.
+     */
+    private static TimerNode reverse(TimerNode node) {
+        TimerNode result = null;
+        while (node != null) {
+            final var next = node.nextIncoming;
+            node.nextIncoming = result;
+            result = node;
+            node = next;
+        }
+        return result;
+    }
+
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            final int shift = LEVEL_BITS * level;
+
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                continue;
+            }
+
+            var node = buckets[level][(int) ((currentTick >>> shift) & LEVEL_MASK)].detachAll();
+
+            while (node != null) {
+                final var next = node.next;
+
+                if (node.isCancelled()) {
+                    node.detached();
+                    size--;
+                } else {
+                    place(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private int expire(final TimerNode bucket) {
+        var node = bucket.detachAll();
+        int fired = 0;
+
+        while (node != null) {
+            final var next = node.next;
+
+            if (node.isCancelled()) {
+                node.detached();
+                size--;
+            } else if (node.deadline > currentTick) {
+                place(node);
+            } else {
+                node.detached();
+                size--;
+                fired += run(node);
+            }
+            node = next;
+        }
+
+        return fired;
+    }
+
+    private void place(final TimerNode node) {
+        final long delta = Math.min(Math.max(node.deadline - currentTick, 0), MAX_SPAN - 1);
+        final long effectiveTick = currentTick + delta;
+
+        int level = 0;
+        while (delta >= (1L << (LEVEL_BITS * (level + 1)))) {
+            level++;
+        }
+
+        buckets[level][(int) ((effectiveTick >>> (LEVEL_BITS * level)) & LEVEL_MASK)].append(node);
+    }
+
+    private long floorTick(final long nanoTime) {
+        return (nanoTime - origin) / TICK_NANOS;
+    }
+
+    private long ceilTick(final long nanoTime) {
+        return (nanoTime - origin + TICK_NANOS - 1) / TICK_NANOS;
+    }
+
+    private int run(final TimerNode node) {
+        final var runnable = node.runnable;
+        node.runnable = null;
+
+        if (!node.fire()) {
+            return 0;
+        }
+
+        if (latenessListener != null) {
+            latenessListener.accept(System.nanoTime() - (origin + node.deadline * TICK_NANOS));
+        }
+
+        try {
+            runnable.run();
+        } catch (final Throwable t) {
+            SingletonHolder.logger().debug("Error while running timer task", t);
+        }
+        return 1;
+    }
+
+    private void cancelled(final TimerNode node) {
+        TimerNode head;
+        do {
+            head = cancelled.get();
+            node.nextCancelled = head;
+        } while (!cancelled.compareAndSet(head, node));
+    }
+
+    /**
+     * Timer entry. Nodes within bucket are organized into circular doubly-linked list with sentinel node as a head.
+     * Node is also a cancellation handle of the timer, state transition from pending to either fired or cancelled
+     * state happens only once, so timer which is cancelled is never fired and vice versa.
+     */
+    static final class TimerNode implements Cancellable {
+        private static final int PENDING = 0;
+        private static final int FIRED = 1;
+        private static final int CANCELLED = 2;
+        private static final AtomicIntegerFieldUpdater<TimerNode> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(TimerNode.class, "state");
+
+        private final TimingWheel wheel;
+        private final long deadline;
+        private Runnable runnable;
+        private volatile int state = PENDING;
+        private TimerNode prev;
+        private TimerNode next;
+        private TimerNode nextIncoming;
+        private TimerNode nextCancelled;
+
+        private TimerNode(final TimingWheel wheel, final long deadline, final Runnable runnable) {
+            this.wheel = wheel;
+            this.deadline = deadline;
+            this.runnable = runnable;
+        }
+
+        static TimerNode sentinel() {
+            final var node = new TimerNode(null, 0, null);
+            node.prev = node;
+            node.next = node;
+            return node;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+
+            wheel.cancelled(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        boolean fire() {
+            return STATE.compareAndSet(this, PENDING, FIRED);
+        }
+
+        boolean abandon() {
+            return STATE.compareAndSet(this, PENDING, CANCELLED);
+        }
+
+        /**
+         * Remove this node from the bucket it belongs to.
+         *
+         * @return <code>true</code> if node was linked into bucket
+         */
+        boolean unlink() {
+            if (prev == null) {
+                return false;
+            }
+
+            prev.next = next;
+            next.prev = prev;
+            detached();
+            runnable = null;
+            return true;
+        }
+
+        /**
+         * Mark node as not belonging to any bucket.
+         */
+        void detached() {
+            prev = null;
+            next = null;
+        }
+
+        boolean isEmpty() {
+            return next == this;
+        }
+
+        void append(final TimerNode node) {
+            node.prev = prev;
+            node.next = this;
+            prev.next = node;
+            prev = node;
+        }
+
+        /**
+         * Detach all nodes from list, which starts at this (sentinel) node.
+         *
+         * @return first node of detached null-terminated list or <code>null</code> if list was empty
+         */
+        TimerNode detachAll() {
+            if (isEmpty()) {
+                return null;
+            }
+
+            final var first = next;
+            prev.next = null;
+            next = this;
+            prev = this;
+            return first;
+        }
+    }
+
+    private static final class SingletonHolder {
+        private static final CoreLogger LOGGER = AppMetaRepository.instance().get(CoreLogger.class);
+
+        static CoreLogger logger() {
+            return LOGGER;
+        }
+    }
+}
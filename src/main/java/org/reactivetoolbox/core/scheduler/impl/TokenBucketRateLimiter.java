@@ -0,0 +1,89 @@
+package org.reactivetoolbox.core.scheduler.impl;
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.async.Promise;
+import org.reactivetoolbox.core.lang.Unit;
+import org.reactivetoolbox.core.scheduler.RateLimiter;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+import org.reactivetoolbox.core.scheduler.Timeout;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket rate limiter implemented as generic cell rate algorithm (GCRA). Entire state of the bucket is single
+ * "theoretical arrival time" - point in time when bucket becomes full again. Every permit moves this point forward
+ * by the emission interval and permit is available once the point is no further than burst tolerance from
+ * the current time. Permit reservation is single CAS of this value.
+ * <br>
+ * Time is read from the {@link TaskScheduler#nanoTime()}, so limiter works with virtual time schedulers as well.
+ */
+public final class TokenBucketRateLimiter implements RateLimiter {
+    private final TaskScheduler scheduler;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong arrivalTime;
+
+    private TokenBucketRateLimiter(final TaskScheduler scheduler, final long intervalNanos, final int burst) {
+        this.scheduler = scheduler;
+        this.intervalNanos = intervalNanos;
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.arrivalTime = new AtomicLong(scheduler.nanoTime());
+    }
+
+    public static TokenBucketRateLimiter tokenBucket(final TaskScheduler scheduler, final int permits,
+                                                     final Timeout period, final int burst) {
+        if (permits <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Number of permits and burst size must be positive");
+        }
+
+        final long intervalNanos = period.nanos() / permits;
+
+        if (intervalNanos <= 0) {
+            throw new IllegalArgumentException("Rate is too high: " + permits + " permits per " + period);
+        }
+        return new TokenBucketRateLimiter(scheduler, intervalNanos, burst);
+    }
+
+    @Override
+    public Promise<Unit> acquire() {
+        while (true) {
+            final long now = scheduler.nanoTime();
+            final long current = arrivalTime.get();
+            final long allowedAt = Math.max(now, current - toleranceNanos);
+
+            if (arrivalTime.compareAndSet(current, Math.max(current, now) + intervalNanos)) {
+                return Permits.grantAfter(scheduler, allowedAt - now);
+            }
+        }
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        while (true) {
+            final long now = scheduler.nanoTime();
+            final long current = arrivalTime.get();
+
+            if (current - toleranceNanos - now > 0) {
+                return false;
+            }
+
+            if (arrivalTime.compareAndSet(current, Math.max(current, now) + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package org.reactivetoolbox.core.scheduler.impl;
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.reactivetoolbox.core.Errors;
+import org.reactivetoolbox.core.lang.List;
+import org.reactivetoolbox.core.lang.Result;
+import org.reactivetoolbox.core.log.CoreLogger;
+import org.reactivetoolbox.core.meta.AppMetaRepository;
+import org.reactivetoolbox.core.scheduler.Cancellable;
+import org.reactivetoolbox.core.scheduler.RunnablePredicate;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+import org.reactivetoolbox.core.scheduler.Timeout;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded scheduler which uses virtual time. Submitted tasks are not executed until one of the
+ * <code>run...</code> or <code>advance...</code> methods is invoked, then they are executed by the calling thread.
+ * Once there are no tasks ready for execution, virtual time jumps directly to the nearest delayed task instead of
+ * waiting for it, so workloads with many timeouts can be simulated much faster than in real time. Execution order
+ * depends only on the order of submissions and timeouts, so simulation is deterministic and repeatable.
+ * <br>
+ * Virtual time starts at zero and is reported by {@link #nanoTime()}. Corresponding wall clock time, starting from
+ * the point in time specified at creation, is available via {@link #clock()}.
+ * <br>
+ * Tasks which are not done after execution are executed again, but they do not prevent virtual time from advancing:
+ * if none of ready tasks are done during a round and no new tasks are submitted, time advances to the next delayed
+ * task.
+ * <br>
+ * This scheduler is not thread safe. All its methods must be invoked from the same thread.
+ */
+public final class VirtualTimeScheduler implements TaskScheduler {
+    private final ArrayDeque<RunnablePredicate> ready = new ArrayDeque<>();
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>();
+    private final Clock clock;
+    private long now = 0;
+    private long sequence = 0;
+    private int cancelledTimers = 0;
+    private boolean shutdown = false;
+
+    private VirtualTimeScheduler(final long originMillis) {
+        clock = new VirtualClock(originMillis, ZoneOffset.UTC);
+    }
+
+    /**
+     * Create scheduler with virtual wall clock starting at the epoch.
+     *
+     * @return created scheduler
+     */
+    public static VirtualTimeScheduler virtualTime() {
+        return new VirtualTimeScheduler(0);
+    }
+
+    /**
+     * Create scheduler with virtual wall clock starting at specified point in time.
+     *
+     * @param startingPoint
+     *        Initial wall clock time, in UTC
+     * @return created scheduler
+     */
+    public static VirtualTimeScheduler virtualTime(final LocalDateTime startingPoint) {
+        return new VirtualTimeScheduler(startingPoint.toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    @Override
+    public TaskScheduler submit(final RunnablePredicate predicate) {
+        ensureActive();
+        ready.add(predicate);
+        return this;
+    }
+
+    @Override
+    public Result<TaskScheduler> trySubmit(final RunnablePredicate predicate) {
+        if (shutdown) {
+            return Errors.SHUT_DOWN.asResult();
+        }
+        return Result.ok(submit(predicate));
+    }
+
+    @Override
+    public Cancellable schedule(final Timeout timeout, final Runnable runnable) {
+        ensureActive();
+
+        final var timer = new Timer(now + timeout.nanos(), sequence++, runnable);
+
+        timers.add(timer);
+        return timer;
+    }
+
+    /**
+     * Current virtual time.
+     *
+     * @return virtual time in nanoseconds since scheduler creation
+     */
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    /**
+     * Wall clock which follows virtual time of this scheduler.
+     *
+     * @return virtual clock
+     */
+    public Clock clock() {
+        return clock;
+    }
+
+    /**
+     * Number of tasks which are not executed yet, including delayed ones.
+     *
+     * @return number of pending tasks
+     */
+    public int pending() {
+        return ready.size() + timers.size() - cancelledTimers;
+    }
+
+    /**
+     * Execute tasks, advancing virtual time as necessary, until there are no more tasks or remaining tasks are not
+     * done and there are no delayed tasks.
+     *
+     * @return number of task executions
+     */
+    public long runUntilIdle() {
+        long count = runReady();
+        int fired;
+
+        while ((fired = fireNextTimers(Long.MAX_VALUE)) > 0) {
+            count += fired + runReady();
+        }
+        return count;
+    }
+
+    /**
+     * Advance virtual time by specified amount, executing all tasks which become due in the meantime.
+     *
+     * @param timeout
+     *        Amount of virtual time
+     * @return number of task executions
+     */
+    public long advanceBy(final Timeout timeout) {
+        final long target = now + timeout.nanos();
+        long count = runReady();
+        int fired;
+
+        while ((fired = fireNextTimers(target)) > 0) {
+            count += fired + runReady();
+        }
+
+        now = target;
+        return count + runReady();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    /**
+     * Execute remaining tasks in virtual time. Since scheduler is single-threaded, this method does not wait and
+     * provided timeout is ignored.
+     *
+     * @return <code>true</code> if all tasks are processed
+     */
+    @Override
+    public boolean awaitTermination(final Timeout timeout) {
+        runUntilIdle();
+        return pending() == 0;
+    }
+
+    @Override
+    public List<RunnablePredicate> shutdownNow() {
+        shutdown = true;
+
+        final var abandoned = new ArrayList<RunnablePredicate>(ready);
+
+        ready.clear();
+
+        while (!timers.isEmpty()) {
+            final var timer = timers.poll();
+
+            if (!timer.cancelled) {
+                abandoned.add(nanoTime -> {
+                    timer.runnable.run();
+                    return true;
+                });
+            }
+        }
+        cancelledTimers = 0;
+
+        return List.from(abandoned);
+    }
+
+    @Override
+    public CoreLogger logger() {
+        return SingletonHolder.logger();
+    }
+
+    private void ensureActive() {
+        if (shutdown) {
+            throw new IllegalStateException("Attempt to submit new task after scheduler is shut down");
+        }
+    }
+
+    /**
+     * Execute ready tasks round by round until there are no ready tasks or round did not make any progress.
+     */
+    private long runReady() {
+        long count = 0;
+
+        while (!ready.isEmpty()) {
+            final int size = ready.size();
+            boolean progress = false;
+
+            for (int i = 0; i < size; i++) {
+                final var task = ready.poll();
+
+                count++;
+
+                if (run(task)) {
+                    progress = true;
+                } else {
+                    ready.add(task);
+                }
+            }
+
+            if (!progress && ready.size() == size) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private boolean run(final RunnablePredicate task) {
+        try {
+            return task.isDone(now);
+        } catch (final Throwable t) {
+            logger().debug("Error while running task", t);
+            return true;
+        }
+    }
+
+    /**
+     * Move virtual time to the nearest delayed task, if it is not later than specified limit, and execute all
+     * delayed tasks which are due at that time.
+     *
+     * @return number of executed delayed tasks
+     */
+    private int fireNextTimers(final long limit) {
+        skipCancelled();
+
+        if (timers.isEmpty() || timers.peek().deadline - limit > 0) {
+            return 0;
+        }
+
+        now = Math.max(now, timers.peek().deadline);
+        int count = 0;
+
+        while (!timers.isEmpty() && timers.peek().deadline - now <= 0) {
+            final var timer = timers.poll();
+
+            if (timer.cancelled) {
+                cancelledTimers--;
+                continue;
+            }
+
+            timer.fired = true;
+            run(timer);
+            count++;
+        }
+        return count;
+    }
+
+    private void run(final Timer timer) {
+        try {
+            timer.runnable.run();
+        } catch (final Throwable t) {
+            logger().debug("Error while running delayed task", t);
+        }
+    }
+
+    private void skipCancelled() {
+        while (!timers.isEmpty() && timers.peek().cancelled) {
+            timers.poll();
+            cancelledTimers--;
+        }
+    }
+
+    private void timerCancelled() {
+        cancelledTimers++;
+
+        // Keep memory retained by cancelled timers proportional to the number of live ones
+        if (cancelledTimers > timers.size() / 2) {
+            timers.removeIf(timer -> timer.cancelled);
+            cancelledTimers = 0;
+        }
+    }
+
+    private final class Timer implements Cancellable, Comparable<Timer> {
+        private final long deadline;
+        private final long sequence;
+        private final Runnable runnable;
+        private boolean cancelled = false;
+        private boolean fired = false;
+
+        private Timer(final long deadline, final long sequence, final Runnable runnable) {
+            this.deadline = deadline;
+            this.sequence = sequence;
+            this.runnable = runnable;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (cancelled || fired) {
+                return false;
+            }
+
+            cancelled = true;
+            timerCancelled();
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public int compareTo(final Timer other) {
+            final int result = Long.compare(deadline, other.deadline);
+
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final class VirtualClock extends Clock {
+        private final long originMillis;
+        private final ZoneId zoneId;
+
+        private VirtualClock(final long originMillis, final ZoneId zoneId) {
+            this.originMillis = originMillis;
+            this.zoneId = zoneId;
+        }
+
+        @Override
+        public long millis() {
+            return originMillis + TimeUnit.NANOSECONDS.toMillis(now);
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(originMillis).plusNanos(now);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zoneId;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zoneId) {
+            if (this.zoneId.equals(zoneId)) {
+                return this;
+            }
+            return new VirtualClock(originMillis, zoneId);
+        }
+    }
+
+    private static final class SingletonHolder {
+        private static final CoreLogger LOGGER = AppMetaRepository.instance().get(CoreLogger.class);
+
+        static CoreLogger logger() {
+            return LOGGER;
+        }
+    }
+}
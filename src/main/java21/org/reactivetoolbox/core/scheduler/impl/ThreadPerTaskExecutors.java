@@ -0,0 +1,35 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+/*
+ * Copyright (c) 2019 Sergiy Yevtushenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Factory for executors which start new thread for every task. This version is used on Java 21 and later and
+ * creates new virtual thread for every task.
+ */
+final class ThreadPerTaskExecutors {
+    private ThreadPerTaskExecutors() {
+    }
+
+    static ExecutorService executor(final String namePattern) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+                                                        .name(namePattern.replace("%d", ""), 0)
+                                                        .factory());
+    }
+}
@@ -1,10 +1,16 @@
 package org.reactivetoolbox.core.async;
 
 import org.junit.jupiter.api.Test;
+import org.reactivetoolbox.core.lang.List;
 import org.reactivetoolbox.core.lang.Result;
 import org.reactivetoolbox.core.lang.Tuple;
 
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.reactivetoolbox.core.Errors.CANCELLED;
 import static org.reactivetoolbox.core.Errors.TIMEOUT;
@@ -13,6 +19,46 @@ import static org.reactivetoolbox.core.lang.Result.ok;
 import static org.reactivetoolbox.core.scheduler.Timeout.timeout;
 
 class PromiseAllTest {
+    @Test
+    void allResolvesWhenAllPromisesInListAreResolved() {
+        final int count = 10_000;
+        final var promises = new ArrayList<Promise<Integer>>();
+        final var holder = new AtomicReference<List<Integer>>();
+
+        for (int i = 0; i < count; i++) {
+            promises.add(Promise.promise());
+        }
+
+        all(List.from(promises)).onSuccess(holder::set);
+
+        IntStream.range(0, count).parallel().forEach(i -> promises.get(count - 1 - i).ok(count - 1 - i));
+
+        assertEquals(count, holder.get().size());
+        assertTrue(holder.get().stream().reduce(-1, (prev, value) -> value == prev + 1 ? value : count) < count);
+    }
+
+    @Test
+    void allFromListFailsOnFirstFailure() {
+        final var promise1 = Promise.<Integer>promise();
+        final var promise2 = Promise.<Integer>promise();
+        final var holder = new AtomicReference<Result<List<Integer>>>();
+
+        all(List.list(promise1, promise2)).onResult(holder::set);
+
+        promise2.fail(CANCELLED);
+
+        assertEquals(Result.fail(CANCELLED), holder.get());
+    }
+
+    @Test
+    void allFromEmptyListIsResolvedImmediately() {
+        final var holder = new AtomicReference<List<Integer>>();
+
+        all(List.<Promise<Integer>>list()).onSuccess(holder::set);
+
+        assertEquals(0, holder.get().size());
+    }
+
 
     @Test
     void allResolvesWhenAllPromisesAreResolvedFor1Promise() {
@@ -1,15 +1,23 @@
 package org.reactivetoolbox.core.async;
 
 import org.junit.jupiter.api.Test;
+import org.reactivetoolbox.core.lang.List;
+import org.reactivetoolbox.core.lang.Result;
 
 import java.util.Objects;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.reactivetoolbox.core.Errors.CANCELLED;
 import static org.reactivetoolbox.core.Errors.TIMEOUT;
 import static org.reactivetoolbox.core.lang.Result.ok;
 import static org.reactivetoolbox.core.scheduler.Timeout.timeout;
@@ -231,6 +239,92 @@ class PromiseTest {
         assertEquals(1, holder.get());
     }
 
+    @Test
+    void anyFromListCancelsRemainingPromises() {
+        final var holder = new AtomicInteger(-1);
+        final var cancelled = new AtomicInteger();
+        final var promises = IntStream.range(0, 1000)
+                                      .mapToObj(i -> Promise.<Integer>promise()
+                                                            .onFailure(f -> cancelled.incrementAndGet()))
+                                      .collect(List.toList());
+
+        Promise.any(promises).onSuccess(holder::set);
+
+        promises.first().whenPresent(promise -> promise.ok(1));
+
+        assertEquals(1, holder.get());
+        assertEquals(999, cancelled.get());
+    }
+
+    @Test
+    void anySuccessFromListIsResolvedWithFailureIfNoneSucceeded() {
+        final var holder = new AtomicReference<Result<Integer>>();
+        final var promise1 = Promise.<Integer>promise();
+        final var promise2 = Promise.<Integer>promise();
+
+        Promise.anySuccess(Result.fail(TIMEOUT), List.list(promise1, promise2)).onResult(holder::set);
+
+        promise1.fail(CANCELLED);
+
+        assertEquals(null, holder.get());
+
+        promise2.fail(CANCELLED);
+
+        assertEquals(Result.fail(TIMEOUT), holder.get());
+    }
+
+    @Test
+    void longChainIsResolvedWithoutStackOverflow() {
+        final var holder = new AtomicInteger(-1);
+        final var head = Promise.<Integer>promise();
+        var tail = head;
+
+        for (int i = 0; i < 100_000; i++) {
+            tail = tail.map(value -> value + 1);
+        }
+
+        tail.onSuccess(holder::set);
+        head.resolveTrampolined(ok(0));
+
+        assertEquals(100_000, holder.get());
+    }
+
+    @Test
+    void nestedResolutionIsVisibleToWaitingCallbackAtAnyDepth() {
+        for (final boolean trampolined : new boolean[] {false, true}) {
+            for (int length = 60; length <= 130; length++) {
+                final var head = Promise.<Integer>promise();
+                final var inner = Promise.<Integer>promise();
+                final var innerValue = new AtomicInteger(-1);
+                final var waitTime = new AtomicLong(Long.MAX_VALUE);
+                var tail = head;
+
+                for (int i = 0; i < length; i++) {
+                    tail = tail.map(value -> value + 1);
+                }
+
+                inner.onSuccess(innerValue::set);
+                tail.onSuccess(value -> {
+                    final long start = System.nanoTime();
+
+                    inner.ok(value);
+                    inner.syncWait(timeout(1).seconds());
+                    waitTime.set(System.nanoTime() - start);
+                });
+
+                if (trampolined) {
+                    head.resolveTrampolined(ok(0));
+                } else {
+                    head.ok(0);
+                }
+
+                assertEquals(length, innerValue.get());
+                assertTrue(waitTime.get() < TimeUnit.MILLISECONDS.toNanos(500),
+                           "Waited too long with chain length " + length + ", trampolined: " + trampolined);
+            }
+        }
+    }
+
     @Test
     void chainMapResolvesToFailureIfBasePromiseIsResolvedToFailure() {
         final var holder = new AtomicInteger(-1);
@@ -265,6 +359,71 @@ class PromiseTest {
         assertEquals("success", stringHolder.get());
     }
 
+    @Test
+    void readyPromiseIsTransformedImmediately() {
+        final var holder = new AtomicReference<String>();
+
+        Promise.readyOk(123)
+               .map(Objects::toString)
+               .flatMap(value -> ok(value + "!"))
+               .onSuccess(holder::set)
+               .ok("ignored");
+
+        assertEquals("123!", holder.get());
+    }
+
+    @Test
+    void exceptionCollectorIsStoredInCurrentInstance() {
+        final var pendingCollector = Promise.RethrowingCollector.collector();
+        final var pending = Promise.<Integer>promise();
+
+        assertSame(pending, pending.exceptionCollector(pendingCollector));
+        pending.onSuccess(value -> { throw new IllegalStateException(); });
+        pending.ok(1);
+        assertEquals(1, pendingCollector.collected().size());
+
+        final var readyCollector = Promise.RethrowingCollector.collector();
+        final var ready = Promise.<Integer>readyFail(CANCELLED);
+        final var other = Promise.<Integer>readyFail(CANCELLED);
+
+        assertSame(ready, ready.exceptionCollector(readyCollector));
+        ready.onFailure(failure -> { throw new IllegalStateException(); });
+        other.onFailure(failure -> { throw new IllegalStateException(); });
+        assertEquals(1, readyCollector.collected().size());
+    }
+
+    @Test
+    void callbacksAreExecutedInOrderOfRegistration() {
+        final var order = new StringBuilder();
+        final var promise = Promise.<Integer>promise();
+
+        promise.onResult(result -> order.append('a'))
+               .onResult(result -> order.append('b'))
+               .onResult(result -> order.append('c'));
+
+        promise.ok(1);
+
+        assertEquals("abc", order.toString());
+    }
+
+    @Test
+    void callbacksRegisteredConcurrentlyWithResolutionAreNotLost() throws InterruptedException {
+        final int count = 10_000;
+        final var invoked = new AtomicInteger();
+        final var promise = Promise.<Integer>promise();
+        final var registrar = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                promise.onResult(result -> invoked.incrementAndGet());
+            }
+        });
+
+        registrar.start();
+        promise.ok(1);
+        registrar.join();
+
+        assertEquals(count, invoked.get());
+    }
+
     private static void safeSleep(final long delay) {
         try {
             Thread.sleep(delay);
@@ -0,0 +1,78 @@
+package org.reactivetoolbox.core.scheduler;
+
+import org.junit.jupiter.api.Test;
+import org.reactivetoolbox.core.async.Promise;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.reactivetoolbox.core.scheduler.Timeout.timeout;
+
+class BlockingTaskSchedulerTest {
+    private static final int N_TASKS = 200;
+
+    @Test
+    void blockingTasksDoNotDelayEachOther() throws InterruptedException {
+        final var scheduler = BlockingTaskScheduler.threadPerTask();
+        final var latch = new CountDownLatch(N_TASKS);
+        final long start = System.nanoTime();
+
+        for (int i = 0; i < N_TASKS; i++) {
+            scheduler.submit(() -> {
+                try {
+                    Thread.sleep(100);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(N_TASKS * 100 / 1000 / 2));
+        scheduler.shutdown();
+    }
+
+    @Test
+    void delayedTaskIsExecutedAfterTimeout() throws InterruptedException {
+        final var scheduler = BlockingTaskScheduler.threadPerTask();
+        final var latch = new CountDownLatch(1);
+        final long start = System.nanoTime();
+
+        scheduler.submit(timeout(50).millis(), latch::countDown);
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        scheduler.shutdown();
+    }
+
+    @Test
+    void cancelledDelayedTaskReleasesThread() {
+        final var scheduler = BlockingTaskScheduler.threadPerTask();
+        final var executed = new AtomicBoolean();
+        final var handle = scheduler.schedule(timeout(1).hours(), () -> executed.set(true));
+
+        assertTrue(handle.cancel());
+        scheduler.shutdown();
+
+        assertTrue(scheduler.awaitTermination(timeout(1).seconds()));
+        assertFalse(executed.get());
+        assertTrue(handle.isCancelled());
+    }
+
+    @Test
+    void promiseCanBeResolvedByBlockingTask() {
+        final var holder = new AtomicReference<String>();
+
+        Promise.<String>promise()
+               .asyncBlocking(promise -> promise.ok(Thread.currentThread().getName()))
+               .syncWait(timeout(1).seconds())
+               .onSuccess(holder::set);
+
+        assertTrue(holder.get().startsWith("Blocking Task Thread"));
+    }
+}
@@ -0,0 +1,85 @@
+package org.reactivetoolbox.core.scheduler;
+
+import org.junit.jupiter.api.Test;
+import org.reactivetoolbox.core.meta.AppMetaRepository;
+import org.reactivetoolbox.core.scheduler.impl.PredicateProcessor;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.LinkedTransferQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedClockTest {
+    @Test
+    void timeIsUpdatedOnlyByTick() {
+        final var clock = CachedClock.cachedClock();
+
+        clock.tick(1_000L);
+        final long millis = clock.millis();
+
+        // Wait until wall clock moves forward
+        while (System.currentTimeMillis() == millis) {
+            Thread.onSpinWait();
+        }
+
+        assertEquals(millis, clock.millis());
+        assertEquals(1_000L, clock.nanoTime());
+        assertEquals(millis, clock.instant().toEpochMilli());
+
+        clock.tick(2_000L);
+
+        assertTrue(clock.millis() > millis);
+        assertEquals(2_000L, clock.nanoTime());
+    }
+
+    @Test
+    void clockIsTickedByProcessorAndInvalidatedWhenIdle() {
+        final var clock = CachedClock.cachedClock();
+        final var processor = new PredicateProcessor(LinkedTransferQueue::new, false, false, clock);
+        final long beforeRound = System.nanoTime();
+
+        processor.processTimeoutsOnce();
+
+        final long cached = clock.nanoTime();
+        assertTrue(cached >= beforeRound);
+        assertEquals(cached, clock.nanoTime());
+
+        processor.idle(WaitStrategy.busySpin(), 0, 0);
+
+        final long beforeRead = System.nanoTime();
+        assertTrue(clock.nanoTime() >= beforeRead);
+
+        processor.processTimeoutsOnce();
+        assertEquals(clock.nanoTime(), clock.nanoTime());
+    }
+
+    @Test
+    void zonedViewSharesCachedTime() {
+        final var clock = CachedClock.cachedClock();
+        final var zone = ZoneId.of("Europe/Kiev");
+        final var zoned = clock.withZone(zone);
+
+        assertSame(clock, clock.withZone(ZoneOffset.UTC));
+        assertEquals(zone, zoned.getZone());
+        assertEquals(clock.millis(), zoned.millis());
+
+        clock.tick();
+
+        assertEquals(clock.millis(), zoned.millis());
+        assertEquals(clock.instant(), zoned.instant());
+        assertSame(clock, zoned.withZone(ZoneOffset.UTC));
+    }
+
+    @Test
+    void cachedClockIsRegisteredInRepository() {
+        final var clock = AppMetaRepository.instance().get(CachedClock.class);
+
+        assertNotSame(clock, AppMetaRepository.instance().get(Clock.class));
+        assertEquals(Clock.systemUTC(), AppMetaRepository.instance().get(Clock.class));
+    }
+}
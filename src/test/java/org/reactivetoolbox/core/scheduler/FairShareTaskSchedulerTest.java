@@ -0,0 +1,123 @@
+package org.reactivetoolbox.core.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.reactivetoolbox.core.scheduler.Timeout.timeout;
+
+class FairShareTaskSchedulerTest {
+    @Test
+    void tenantsAreServedAccordingToTheirWeights() throws InterruptedException {
+        final var scheduler = FairShareTaskScheduler.with(SchedulerConfig.config(1)).weight("heavy", 3);
+        final var blocker = new CountDownLatch(1);
+        final var latch = new CountDownLatch(400);
+        final var order = new CopyOnWriteArrayList<String>();
+
+        scheduler.submit("blocker", (nanoTime) -> awaitQuietly(blocker));
+
+        for (int i = 0; i < 300; i++) {
+            scheduler.submit("heavy", record(order, latch, "heavy"));
+        }
+        for (int i = 0; i < 100; i++) {
+            scheduler.submit("light", record(order, latch, "light"));
+        }
+
+        blocker.countDown();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        final var prefix = order.subList(0, 40);
+
+        assertEquals(30, prefix.stream().filter("heavy"::equals).count());
+        assertEquals(10, prefix.stream().filter("light"::equals).count());
+
+        scheduler.shutdown();
+    }
+
+    @Test
+    void noisyTenantDoesNotDelayOthers() throws InterruptedException {
+        final var scheduler = FairShareTaskScheduler.with(SchedulerConfig.config(1));
+        final var noisy = scheduler.tenant("noisy");
+        final var quiet = scheduler.tenant("quiet");
+        final var blocker = new CountDownLatch(1);
+        final var order = Collections.synchronizedList(new ArrayList<String>());
+
+        scheduler.submit("blocker", (nanoTime) -> awaitQuietly(blocker));
+
+        for (int i = 0; i < 10_000; i++) {
+            noisy.submit(() -> order.add("noisy"));
+        }
+        for (int i = 0; i < 10; i++) {
+            quiet.submit(() -> order.add("quiet"));
+        }
+
+        blocker.countDown();
+        scheduler.shutdown();
+
+        assertTrue(scheduler.awaitTermination(timeout(5).seconds()));
+        assertEquals(10_010, order.size());
+        assertEquals(19, order.lastIndexOf("quiet"));
+    }
+
+    @Test
+    void delayedTasksAreSubmittedOnBehalfOfTenant() throws InterruptedException {
+        final var scheduler = FairShareTaskScheduler.with(SchedulerConfig.config(1));
+        final var latch = new CountDownLatch(2);
+
+        scheduler.tenant("tenant").submit(timeout(10).millis(), latch::countDown);
+        scheduler.submit(timeout(10).millis(), latch::countDown);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        scheduler.shutdown();
+        assertThrows(IllegalStateException.class, () -> scheduler.submit("tenant", nanoTime -> true));
+    }
+
+    @Test
+    void shutdownNowReturnsTenantTasks() throws InterruptedException {
+        final var scheduler = FairShareTaskScheduler.with(SchedulerConfig.config(1));
+        final var started = new CountDownLatch(1);
+        final var blocker = new CountDownLatch(1);
+
+        scheduler.submit("blocker", (nanoTime) -> {
+            started.countDown();
+            return awaitQuietly(blocker, 50);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 10; i++) {
+            scheduler.submit("tenant", nanoTime -> true);
+        }
+
+        assertEquals(10, scheduler.shutdownNow().size());
+    }
+
+    private static RunnablePredicate record(final List<String> order, final CountDownLatch latch, final String name) {
+        return nanoTime -> {
+            order.add(name);
+            latch.countDown();
+            return true;
+        };
+    }
+
+    private static boolean awaitQuietly(final CountDownLatch latch) {
+        return awaitQuietly(latch, 5_000);
+    }
+
+    private static boolean awaitQuietly(final CountDownLatch latch, final long millis) {
+        try {
+            latch.await(millis, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+}
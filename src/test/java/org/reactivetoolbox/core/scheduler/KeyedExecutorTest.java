@@ -0,0 +1,115 @@
+package org.reactivetoolbox.core.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyedExecutorTest {
+    private static final int N_KEYS = 100;
+    private static final int N_TASKS_PER_KEY = 1000;
+
+    @Test
+    void tasksWithSameKeyAreExecutedInOrderWithoutOverlap() throws InterruptedException {
+        final var scheduler = TaskScheduler.with(SchedulerConfig.config(4).withWorkStealing());
+        final var executor = KeyedExecutor.keyed(scheduler);
+        final var last = new AtomicIntegerArray(N_KEYS);
+        final var running = new AtomicIntegerArray(N_KEYS);
+        final var violations = new AtomicInteger();
+        final var latch = new CountDownLatch(N_KEYS * N_TASKS_PER_KEY);
+
+        for (int i = 1; i <= N_TASKS_PER_KEY; i++) {
+            for (int key = 0; key < N_KEYS; key++) {
+                final int k = key;
+                final int sequence = i;
+
+                executor.submit(k, () -> {
+                    if (running.getAndIncrement(k) != 0 || last.getAndSet(k, sequence) != sequence - 1) {
+                        violations.incrementAndGet();
+                    }
+                    running.decrementAndGet(k);
+                    latch.countDown();
+                });
+            }
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(0, violations.get());
+
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(Timeout.timeout(5).seconds()));
+        assertEquals(0, executor.activeKeys());
+    }
+
+    @Test
+    void tasksWithDifferentKeysAreExecutedInParallel() throws InterruptedException {
+        final var scheduler = TaskScheduler.with(2);
+        final var executor = KeyedExecutor.keyed(scheduler);
+        final var first = new CountDownLatch(1);
+        final var second = new CountDownLatch(1);
+        final var done = new CountDownLatch(2);
+
+        executor.submit("a", () -> {
+            first.countDown();
+            await(second);
+            done.countDown();
+        });
+        executor.submit("b", () -> {
+            second.countDown();
+            await(first);
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        scheduler.shutdown();
+    }
+
+    @Test
+    void rejectedSubmissionIsRolledBack() throws InterruptedException {
+        final var scheduler = TaskScheduler.with(SchedulerConfig.config(1).withCapacity(2, RejectionPolicy.FAIL));
+        final var executor = KeyedExecutor.keyed(scheduler);
+        final var started = new CountDownLatch(1);
+        final var released = new CountDownLatch(1);
+        final var rejectedTaskRun = new AtomicInteger();
+
+        scheduler.submit(() -> {
+            started.countDown();
+            await(released);
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        // Fill remaining capacity of the only worker
+        while (scheduler.trySubmit(() -> {}).fold(failure -> false, success -> true)) {
+        }
+
+        assertThrows(RejectedExecutionException.class, () -> executor.submit("a", rejectedTaskRun::incrementAndGet));
+        assertEquals(0, executor.activeKeys());
+
+        released.countDown();
+
+        final var done = new CountDownLatch(1);
+        executor.submit("a", done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, rejectedTaskRun.get());
+
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(Timeout.timeout(5).seconds()));
+        assertEquals(0, executor.activeKeys());
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
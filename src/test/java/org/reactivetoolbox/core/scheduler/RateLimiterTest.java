@@ -0,0 +1,122 @@
+package org.reactivetoolbox.core.scheduler;
+
+import org.junit.jupiter.api.Test;
+import org.reactivetoolbox.core.scheduler.impl.VirtualTimeScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.reactivetoolbox.core.scheduler.Timeout.timeout;
+
+class RateLimiterTest {
+    @Test
+    void tokenBucketAllowsBurstThenConstantRate() {
+        final var scheduler = VirtualTimeScheduler.virtualTime();
+        final var limiter = RateLimiter.tokenBucket(scheduler, 10, timeout(1).seconds(), 5);
+        final var grants = acquire(scheduler, limiter, 8);
+
+        scheduler.runUntilIdle();
+
+        assertEquals(List.of(0L, 0L, 0L, 0L, 0L, 100L, 200L, 300L), grants);
+    }
+
+    @Test
+    void tokenBucketRefillsWhileIdle() {
+        final var scheduler = VirtualTimeScheduler.virtualTime();
+        final var limiter = RateLimiter.tokenBucket(scheduler, 10, timeout(1).seconds(), 2);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        scheduler.advanceBy(timeout(100).millis());
+
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        scheduler.advanceBy(timeout(10).seconds());
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    void slidingWindowLimitsPermitsPerWindow() {
+        final var scheduler = VirtualTimeScheduler.virtualTime();
+        final var limiter = RateLimiter.slidingWindow(scheduler, 3, timeout(1).seconds());
+        final var grants = acquire(scheduler, limiter, 7);
+
+        assertFalse(limiter.tryAcquire());
+
+        scheduler.runUntilIdle();
+
+        assertEquals(List.of(0L, 0L, 0L, 1000L, 1000L, 1000L, 2000L), grants);
+    }
+
+    @Test
+    void permitsAreNotLostUnderContention() throws InterruptedException {
+        final var scheduler = TaskScheduler.with(2);
+        final var limiter = RateLimiter.slidingWindow(scheduler, 100, timeout(10).millis());
+        final var executor = Executors.newFixedThreadPool(4);
+        final var latch = new CountDownLatch(4 * 250);
+
+        for (int n = 0; n < 4; n++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 250; i++) {
+                    limiter.acquire().onSuccess(unit -> latch.countDown());
+                }
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        executor.shutdown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void slidingWindowIsExactUnderContention() throws InterruptedException {
+        final var scheduler = VirtualTimeScheduler.virtualTime();
+        final var limiter = RateLimiter.slidingWindow(scheduler, 100, timeout(1).seconds());
+        final var executor = Executors.newFixedThreadPool(4);
+        final var granted = new AtomicInteger();
+        final var latch = new CountDownLatch(4);
+
+        for (int n = 0; n < 4; n++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 250; i++) {
+                    if (limiter.tryAcquire()) {
+                        granted.incrementAndGet();
+                    }
+                }
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(100, granted.get());
+
+        scheduler.advanceBy(timeout(1).seconds());
+
+        assertTrue(limiter.tryAcquire());
+        executor.shutdown();
+    }
+
+    private static List<Long> acquire(final VirtualTimeScheduler scheduler, final RateLimiter limiter,
+                                      final int count) {
+        final var grants = new ArrayList<Long>();
+
+        for (int i = 0; i < count; i++) {
+            limiter.acquire().onSuccess(unit -> grants.add(TimeUnit.NANOSECONDS.toMillis(scheduler.nanoTime())));
+        }
+        return grants;
+    }
+}
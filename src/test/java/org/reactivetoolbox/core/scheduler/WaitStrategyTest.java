@@ -0,0 +1,69 @@
+package org.reactivetoolbox.core.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.reactivetoolbox.core.scheduler.Timeout.timeout;
+
+class WaitStrategyTest {
+    @Test
+    void idleSchedulerPicksUpSubmittedTasks() throws InterruptedException {
+        for (final var entry : deepestIdleRounds().entrySet()) {
+            final var strategy = entry.getKey();
+            final int deepest = entry.getValue();
+            final var idle = new CountDownLatch(2);
+            final var scheduler = TaskScheduler.with(2, (idleCount, maxWaitNanos) -> {
+                // Every worker reports once it reaches the deepest idle state of the strategy
+                if (idleCount == deepest) {
+                    idle.countDown();
+                }
+                strategy.idle(idleCount, maxWaitNanos);
+            });
+            final var latch = new CountDownLatch(2);
+
+            assertTrue(idle.await(1, TimeUnit.SECONDS));
+
+            scheduler.submit(latch::countDown);
+            scheduler.submit(latch::countDown);
+
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void idleSchedulerFiresDelayedTasks() throws InterruptedException {
+        for (final var strategy : strategies()) {
+            final var scheduler = TaskScheduler.with(1, strategy);
+            final var latch = new CountDownLatch(2);
+            final long start = System.nanoTime();
+
+            scheduler.submit(timeout(50).millis(), latch::countDown);
+            scheduler.submit(timeout(10).millis(), latch::countDown);
+
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Strategies with number of idle rounds after which they reach the deepest idle state.
+     */
+    private static Map<WaitStrategy, Integer> deepestIdleRounds() {
+        final int backoffRounds = WaitStrategy.DEFAULT_SPINS + WaitStrategy.DEFAULT_YIELDS;
+
+        return Map.of(WaitStrategy.busySpin(), 0, WaitStrategy.yielding(), 0,
+                      WaitStrategy.parking(), 0, WaitStrategy.backoff(), backoffRounds);
+    }
+
+    private static List<WaitStrategy> strategies() {
+        return List.of(WaitStrategy.busySpin(), WaitStrategy.yielding(),
+                       WaitStrategy.parking(), WaitStrategy.backoff());
+    }
+}
@@ -0,0 +1,85 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+import org.junit.jupiter.api.Test;
+import org.reactivetoolbox.core.lang.Option;
+import org.reactivetoolbox.core.scheduler.SchedulerConfig;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.reactivetoolbox.core.scheduler.Timeout.timeout;
+
+class AdaptivePoolTest {
+    @Test
+    void cgroupLimitsAreParsed() {
+        assertEquals(Option.option(2), CpuLimits.parseCpuMax("200000 100000\n"));
+        assertEquals(Option.option(2), CpuLimits.parseCpuMax("150000 100000"));
+        assertEquals(Option.option(1), CpuLimits.parseCpuMax("50000 100000"));
+        assertEquals(Option.empty(), CpuLimits.parseCpuMax("max 100000"));
+        assertEquals(Option.empty(), CpuLimits.parseCpuMax("garbage"));
+
+        assertEquals(Option.option(4), CpuLimits.parseCfsQuota("400000\n", "100000\n"));
+        assertEquals(Option.empty(), CpuLimits.parseCfsQuota("-1", "100000"));
+
+        final int processors = CpuLimits.availableProcessors();
+        assertTrue(processors >= 1 && processors <= Runtime.getRuntime().availableProcessors());
+    }
+
+    @Test
+    void controllerShrinksIdlePoolAndGrowsBusyPool() {
+        final var processors = new PredicateProcessor[] {new PredicateProcessor(), new PredicateProcessor(),
+                                                         new PredicateProcessor()};
+        final var controller = new PoolSizeController(processors, 1);
+
+        assertEquals(3, controller.active());
+
+        for (int i = 0; i < 9; i++) {
+            controller.run();
+        }
+        assertEquals(3, controller.active());
+
+        controller.run();
+        assertEquals(2, controller.active());
+
+        for (int i = 0; i < 100; i++) {
+            controller.run();
+        }
+        assertEquals(1, controller.active());
+
+        processors[0].recordBusy(TimeUnit.SECONDS.toNanos(100));
+        controller.run();
+        assertEquals(2, controller.active());
+
+        processors[0].recordBusy(TimeUnit.SECONDS.toNanos(100));
+        processors[1].recordBusy(TimeUnit.SECONDS.toNanos(100));
+        controller.run();
+        controller.run();
+        assertEquals(3, controller.active());
+    }
+
+    @Test
+    void adaptiveSchedulerProcessesTasks() throws InterruptedException {
+        final var scheduler = DoubleQueueTaskScheduler.with(SchedulerConfig.config(4).withAdaptiveSize(1)
+                                                                           .withWorkStealing());
+        final var latch = new CountDownLatch(1000);
+
+        assertEquals(4, scheduler.activeProcessors());
+
+        for (int i = 0; i < 1000; i++) {
+            scheduler.submit(latch::countDown);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(timeout(5).seconds()));
+    }
+
+    @Test
+    void minimalSizeIsValidated() {
+        assertThrows(IllegalArgumentException.class, () -> SchedulerConfig.config(2).withAdaptiveSize(3));
+        assertThrows(IllegalArgumentException.class, () -> SchedulerConfig.config(2).withAdaptiveSize(0));
+    }
+}
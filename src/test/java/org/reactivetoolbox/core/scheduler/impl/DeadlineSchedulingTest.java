@@ -0,0 +1,108 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+import org.junit.jupiter.api.Test;
+import org.reactivetoolbox.core.scheduler.Priority;
+import org.reactivetoolbox.core.scheduler.RunnablePredicate;
+import org.reactivetoolbox.core.scheduler.SchedulerConfig;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.reactivetoolbox.core.scheduler.Timeout.timeout;
+
+class DeadlineSchedulingTest {
+    @Test
+    void tasksAreExecutedInDeadlineOrder() throws InterruptedException {
+        final var scheduler = TaskScheduler.with(SchedulerConfig.config(1).withDeadlineScheduling());
+        final var blocker = new CountDownLatch(1);
+        final var latch = new CountDownLatch(6);
+        final var order = new CopyOnWriteArrayList<String>();
+
+        scheduler.submit(() -> awaitQuietly(blocker));
+
+        scheduler.submit(Priority.LOW, record(order, latch, "low"));
+        scheduler.submit(record(order, latch, "default"));
+        scheduler.submitWithDeadline(timeout(1).seconds(), record(order, latch, "1s"));
+        scheduler.submit(Priority.HIGH, record(order, latch, "high"));
+        scheduler.submitWithDeadline(timeout(20).millis(), record(order, latch, "20ms"));
+        scheduler.submit(Priority.NORMAL, record(order, latch, "normal"));
+
+        blocker.countDown();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("high", "20ms", "default", "normal", "1s", "low"), order);
+        scheduler.shutdown();
+    }
+
+    @Test
+    void resubmittedTasksKeepTheirDeadline() throws InterruptedException {
+        final var scheduler = TaskScheduler.with(SchedulerConfig.config(1).withDeadlineScheduling());
+        final var blocker = new CountDownLatch(1);
+        final var latch = new CountDownLatch(2);
+        final var order = new CopyOnWriteArrayList<String>();
+
+        scheduler.submit(() -> awaitQuietly(blocker));
+        scheduler.submit(Priority.LOW, repeat(order, latch, "low"));
+        scheduler.submit(Priority.HIGH, repeat(order, latch, "high"));
+
+        blocker.countDown();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("high", "low", "high", "low", "high", "low"), order);
+        scheduler.shutdown();
+    }
+
+    @Test
+    void deadlineIsIgnoredInDefaultMode() throws InterruptedException {
+        final var scheduler = TaskScheduler.with(1);
+        final var blocker = new CountDownLatch(1);
+        final var latch = new CountDownLatch(2);
+        final var order = new CopyOnWriteArrayList<String>();
+
+        scheduler.submit(() -> awaitQuietly(blocker));
+        scheduler.submit(Priority.LOW, record(order, latch, "low"));
+        scheduler.submit(Priority.HIGH, record(order, latch, "high"));
+
+        blocker.countDown();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("low", "high"), order);
+        scheduler.shutdown();
+    }
+
+    private static RunnablePredicate record(final List<String> order, final CountDownLatch latch, final String name) {
+        return nanoTime -> {
+            order.add(name);
+            latch.countDown();
+            return true;
+        };
+    }
+
+    private static RunnablePredicate repeat(final List<String> order, final CountDownLatch latch, final String name) {
+        final var rounds = new AtomicInteger();
+
+        return nanoTime -> {
+            order.add(name);
+
+            if (rounds.incrementAndGet() < 3) {
+                return false;
+            }
+            latch.countDown();
+            return true;
+        };
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
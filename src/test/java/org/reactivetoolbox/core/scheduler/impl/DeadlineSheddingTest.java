@@ -0,0 +1,108 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+import org.junit.jupiter.api.Test;
+import org.reactivetoolbox.core.Errors;
+import org.reactivetoolbox.core.async.Promise;
+import org.reactivetoolbox.core.lang.Result;
+import org.reactivetoolbox.core.scheduler.ExpirableTask;
+import org.reactivetoolbox.core.scheduler.SchedulerConfig;
+import org.reactivetoolbox.core.scheduler.SchedulerMetrics;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.reactivetoolbox.core.scheduler.Timeout.timeout;
+
+class DeadlineSheddingTest {
+    @Test
+    void expiredTasksAreDiscardedAndPromisesFailed() throws InterruptedException {
+        final var scheduler = TaskScheduler.with(SchedulerConfig.config(1).withMetrics());
+        final var blockerStarted = new CountDownLatch(1);
+        final var blockerReleased = new CountDownLatch(1);
+        final var executed = new AtomicInteger();
+        final var expiring = new ArrayList<Promise<Integer>>();
+
+        scheduler.submit(() -> {
+            blockerStarted.countDown();
+            await(blockerReleased);
+        });
+
+        assertTrue(blockerStarted.await(1, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 10; i++) {
+            expiring.add(Promise.<Integer>promise().asyncWithDeadline(scheduler, timeout(10).millis(), promise -> {
+                executed.incrementAndGet();
+                promise.ok(1);
+            }));
+        }
+
+        final var regular = Promise.<Integer>promise().asyncWithDeadline(scheduler, timeout(10).seconds(),
+                                                                           promise -> promise.ok(2));
+        final long expiration = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+
+        // Worker is blocked until deadline of expiring tasks is passed
+        while (System.nanoTime() - expiration <= 0) {
+            Thread.onSpinWait();
+        }
+        blockerReleased.countDown();
+
+        final var timedOut = new AtomicInteger();
+        final var completed = new AtomicInteger();
+
+        regular.syncWait(timeout(5).seconds())
+               .onResult(result -> completed.addAndGet(Result.ok(2).equals(result) ? 1 : 0));
+        expiring.forEach(promise -> promise.syncWait(timeout(5).seconds())
+                                           .onResult(result -> timedOut.addAndGet(
+                                                   Errors.TIMEOUT.asResult().equals(result) ? 1 : 0)));
+
+        assertEquals(1, completed.get());
+        assertEquals(10, timedOut.get());
+        assertEquals(0, executed.get());
+        assertEquals(10L, scheduler.metrics().map(SchedulerMetrics::shed).otherwise(0L));
+
+        scheduler.shutdown();
+    }
+
+    @Test
+    void startedTaskIsNotDiscardedWhenDeadlinePassesBetweenRounds() {
+        final var processors = List.of(new PredicateProcessor(),
+                                       new PredicateProcessor(LinkedTransferQueue::new, true, false),
+                                       new PredicateProcessor(LinkedTransferQueue::new, false, true));
+
+        for (final var processor : processors) {
+            final var rounds = new AtomicInteger();
+            final var expired = new AtomicInteger();
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+
+            processor.submit(ExpirableTask.expirable(deadline, nanoTime -> {
+                while (System.nanoTime() - deadline <= 0) {
+                    Thread.onSpinWait();
+                }
+                return rounds.incrementAndGet() == 3;
+            }, expired::incrementAndGet));
+
+            for (int i = 0; i < 10 && processor.pending() > 0; i++) {
+                processor.processTimeoutsOnce();
+            }
+
+            assertEquals(3, rounds.get());
+            assertEquals(0, expired.get());
+            assertEquals(0, processor.pending());
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+import org.junit.jupiter.api.Test;
+import org.reactivetoolbox.core.scheduler.SchedulerConfig;
+import org.reactivetoolbox.core.scheduler.SchedulerMetrics;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadAwareDispatchTest {
+    private static final int N_SHORT_TASKS = 100;
+
+    @Test
+    void tasksAreNotDispatchedToBusyProcessor() throws InterruptedException {
+        final var scheduler = TaskScheduler.with(SchedulerConfig.config(2).withMetrics());
+        final var longTaskStarted = new CountDownLatch(1);
+        final var longTaskReleased = new CountDownLatch(1);
+
+        scheduler.submit(() -> {
+            longTaskStarted.countDown();
+            try {
+                longTaskReleased.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertTrue(longTaskStarted.await(1, TimeUnit.SECONDS));
+
+        try {
+            for (int i = 0; i < N_SHORT_TASKS; i++) {
+                final var shortTaskDone = new CountDownLatch(1);
+
+                scheduler.submit(shortTaskDone::countDown);
+
+                assertTrue(shortTaskDone.await(1, TimeUnit.SECONDS), "Task is queued behind long task");
+
+                // Only long task remains pending once short task is completely processed
+                while (scheduler.metrics().map(SchedulerMetrics::queueDepth).otherwise(0L) > 1) {
+                    Thread.onSpinWait();
+                }
+            }
+        } finally {
+            longTaskReleased.countDown();
+            scheduler.shutdown();
+        }
+    }
+}
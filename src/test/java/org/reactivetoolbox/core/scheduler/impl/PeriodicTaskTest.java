@@ -0,0 +1,143 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+import org.junit.jupiter.api.Test;
+import org.reactivetoolbox.core.scheduler.MissedRunPolicy;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.reactivetoolbox.core.scheduler.Timeout.timeout;
+
+class PeriodicTaskTest {
+    @Test
+    void fixedRateTaskIsExecutedUntilCancelled() {
+        final var scheduler = VirtualTimeScheduler.virtualTime();
+        final var counter = new AtomicInteger();
+
+        final var handle = scheduler.scheduleAtFixedRate(timeout(10).millis(), timeout(10).millis(),
+                                                         counter::incrementAndGet);
+
+        scheduler.advanceBy(timeout(49).millis());
+        assertEquals(4, counter.get());
+
+        scheduler.advanceBy(timeout(1).millis());
+        assertEquals(5, counter.get());
+
+        assertTrue(handle.cancel());
+        assertFalse(handle.cancel());
+        assertTrue(handle.isCancelled());
+
+        scheduler.advanceBy(timeout(50).millis());
+        assertEquals(5, counter.get());
+        assertEquals(0, scheduler.pending());
+    }
+
+    @Test
+    void fixedRateTaskDoesNotDrift() {
+        final var scheduler = VirtualTimeScheduler.virtualTime();
+        final var starts = new ArrayList<Long>();
+
+        scheduler.scheduleAtFixedRate(timeout(0).millis(), timeout(10).millis(), () -> {
+            starts.add(scheduler.nanoTime());
+            spend(scheduler, 3);
+        });
+
+        scheduler.advanceBy(timeout(195).millis());
+
+        // With fixed delay run time would be added to each period
+        assertEquals(LongStream.range(0, 20).mapToObj(i -> millis(i * 10)).collect(toList()), starts);
+    }
+
+    @Test
+    void missedRunsAreSkipped() {
+        assertEquals(List.of(millis(110), millis(120)), runsAfterStall(MissedRunPolicy.SKIP));
+    }
+
+    @Test
+    void missedRunsAreCaughtUp() {
+        final var expected = new ArrayList<Long>();
+
+        // Nine missed runs and the one due at the end of the stall are executed immediately
+        for (int i = 0; i < 10; i++) {
+            expected.add(millis(100));
+        }
+        expected.add(millis(110));
+        expected.add(millis(120));
+
+        assertEquals(expected, runsAfterStall(MissedRunPolicy.CATCH_UP));
+    }
+
+    @Test
+    void fixedDelayTaskWaitsAfterEachRun() {
+        final var scheduler = VirtualTimeScheduler.virtualTime();
+        final var starts = new ArrayList<Long>();
+
+        scheduler.scheduleWithFixedDelay(timeout(0).millis(), timeout(10).millis(), () -> {
+            starts.add(scheduler.nanoTime());
+            spend(scheduler, 10);
+        });
+
+        scheduler.advanceBy(timeout(85).millis());
+
+        assertEquals(List.of(millis(0), millis(20), millis(40), millis(60), millis(80)), starts);
+    }
+
+    @Test
+    void failingTaskIsNotStopped() throws InterruptedException {
+        final var scheduler = TaskScheduler.with(1);
+        final var latch = new CountDownLatch(3);
+
+        final var handle = scheduler.scheduleWithFixedDelay(timeout(0).millis(), timeout(1).millis(), () -> {
+            latch.countDown();
+            throw new IllegalStateException("Test");
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        handle.cancel();
+        scheduler.shutdown();
+    }
+
+    /**
+     * First run takes 100ms with period of 10ms, so 9 runs are missed.
+     *
+     * @return start times of runs after the stalled one
+     */
+    private static List<Long> runsAfterStall(final MissedRunPolicy policy) {
+        final var scheduler = VirtualTimeScheduler.virtualTime();
+        final var starts = new ArrayList<Long>();
+
+        final var handle = scheduler.scheduleAtFixedRate(timeout(0).millis(), timeout(10).millis(), policy, () -> {
+            starts.add(scheduler.nanoTime());
+
+            if (starts.size() == 1) {
+                spend(scheduler, 100);
+            }
+        });
+
+        scheduler.advanceBy(timeout(125).millis());
+        handle.cancel();
+
+        return starts.subList(1, starts.size());
+    }
+
+    private static long millis(final long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Simulate execution time of the running task. Timers which become due in the meantime are fired.
+     */
+    private static void spend(final VirtualTimeScheduler scheduler, final long millis) {
+        scheduler.advanceBy(timeout(millis).millis());
+    }
+}
@@ -0,0 +1,254 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+import org.junit.jupiter.api.Test;
+import org.reactivetoolbox.core.scheduler.RunnablePredicate;
+import org.reactivetoolbox.core.scheduler.SchedulerConfig;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferQueueTest {
+    private static final int N_PRODUCERS = 4;
+    private static final int N_ITEMS_PER_PRODUCER = 100_000;
+
+    @Test
+    void elementsAreReturnedInOrder() {
+        final var queue = RingBufferQueue.<Integer>ringBuffer(8);
+
+        assertTrue(queue.isEmpty());
+
+        for (int i = 0; i < 8; i++) {
+            queue.add(i);
+        }
+
+        assertFalse(queue.isEmpty());
+        assertEquals(8, queue.size());
+
+        for (int i = 0; i < 8; i++) {
+            assertEquals(i, queue.poll());
+        }
+
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void elementsAreStoredInOverflowQueueIfRingIsFull() {
+        final var queue = RingBufferQueue.<Integer>ringBuffer(3);
+
+        for (int i = 0; i < 10; i++) {
+            queue.add(i);
+        }
+
+        assertEquals(10, queue.size());
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, queue.poll());
+        }
+
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void capacityBelowTwoIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RingBufferQueue.ringBuffer(1));
+        assertThrows(IllegalArgumentException.class, () -> RingBufferQueue.ringBuffer(0));
+        assertThrows(IllegalArgumentException.class, () -> SchedulerConfig.config(1).withRingBuffer(1));
+    }
+
+    @Test
+    void queueWithSmallestCapacityWorks() {
+        final var queue = RingBufferQueue.<Integer>ringBuffer(2);
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 5; i++) {
+                queue.add(i);
+            }
+
+            assertEquals(5, queue.size());
+
+            for (int i = 0; i < 5; i++) {
+                assertEquals(i, queue.poll());
+            }
+
+            assertNull(queue.poll());
+            assertTrue(queue.isEmpty());
+        }
+
+        queue.addAll(List.of(0, 1, 2, 3));
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void inheritedCollectionMethodsWork() {
+        final var queue = RingBufferQueue.<Integer>ringBuffer(4);
+
+        for (int i = 0; i < 6; i++) {
+            queue.add(i);
+        }
+
+        assertEquals("[0, 1, 2, 3, 4, 5]", queue.toString());
+        assertTrue(queue.contains(2));
+        assertTrue(queue.contains(5));
+        assertFalse(queue.contains(6));
+        assertEquals(6, queue.toArray().length);
+
+        assertTrue(queue.remove((Object) 1));
+        assertTrue(queue.remove((Object) 4));
+        assertFalse(queue.contains(1));
+        assertTrue(queue.removeAll(List.of(0, 5)));
+        assertEquals("[2, 3]", queue.toString());
+
+        assertEquals(2, queue.peek());
+        assertEquals(2, queue.poll());
+        assertEquals(3, queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void removedElementsAreSkippedByConsumer() {
+        final var queue = RingBufferQueue.<Integer>ringBuffer(4);
+
+        queue.addAll(List.of(0, 1, 2, 3));
+        queue.retainAll(List.of(3));
+
+        assertFalse(queue.isEmpty());
+        assertEquals(3, queue.peek());
+        assertEquals(3, queue.poll());
+        assertTrue(queue.isEmpty());
+
+        queue.add(7);
+        assertEquals(7, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void batchIsAddedToRingAndOverflowQueue() {
+        final var queue = RingBufferQueue.<Integer>ringBuffer(8);
+
+        queue.add(-1);
+        queue.addAll(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+
+        assertEquals(11, queue.size());
+        assertEquals(-1, queue.poll());
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, queue.poll());
+        }
+
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void batchesFromMultipleProducersAreNotLost() throws InterruptedException {
+        final var queue = RingBufferQueue.<Long>ringBuffer(1024);
+        final var executor = Executors.newFixedThreadPool(N_PRODUCERS);
+        final var batch = LongStream.rangeClosed(1, 100).boxed().collect(Collectors.toList());
+
+        for (int n = 0; n < N_PRODUCERS; n++) {
+            executor.execute(() -> {
+                for (int i = 0; i < N_ITEMS_PER_PRODUCER / batch.size(); i++) {
+                    queue.addAll(batch);
+                }
+            });
+        }
+        executor.shutdown();
+
+        long count = 0;
+        long sum = 0;
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while (count < N_PRODUCERS * N_ITEMS_PER_PRODUCER && System.nanoTime() < deadline) {
+            final var element = queue.poll();
+
+            if (element != null) {
+                sum += element;
+                count++;
+            }
+        }
+
+        assertEquals(N_PRODUCERS * N_ITEMS_PER_PRODUCER, count);
+        assertEquals(N_PRODUCERS * (long) N_ITEMS_PER_PRODUCER / batch.size() * 5050, sum);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void elementsFromMultipleProducersAreNotLost() throws InterruptedException {
+        final var queue = RingBufferQueue.<Long>ringBuffer(1024);
+        final var executor = Executors.newFixedThreadPool(N_PRODUCERS);
+        final var sum = new AtomicLong();
+
+        for (int n = 0; n < N_PRODUCERS; n++) {
+            executor.execute(() -> {
+                for (long i = 1; i <= N_ITEMS_PER_PRODUCER; i++) {
+                    queue.add(i);
+                }
+            });
+        }
+        executor.shutdown();
+
+        long count = 0;
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while (count < N_PRODUCERS * N_ITEMS_PER_PRODUCER && System.nanoTime() < deadline) {
+            final var element = queue.poll();
+
+            if (element != null) {
+                sum.addAndGet(element);
+                count++;
+            }
+        }
+
+        assertEquals(N_PRODUCERS * N_ITEMS_PER_PRODUCER, count);
+        assertEquals(N_PRODUCERS * (long) N_ITEMS_PER_PRODUCER * (N_ITEMS_PER_PRODUCER + 1) / 2, sum.get());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void schedulerProcessesTasksUsingRingBuffers() throws InterruptedException {
+        final var scheduler = TaskScheduler.with(SchedulerConfig.config(2).withRingBuffer(16));
+        final var latch = new CountDownLatch(1000);
+
+        for (int i = 0; i < 1000; i++) {
+            scheduler.submit(latch::countDown);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        scheduler.shutdown();
+    }
+
+    @Test
+    void schedulerSpreadsBatchAcrossProcessors() throws InterruptedException {
+        final var scheduler = TaskScheduler.with(SchedulerConfig.config(4).withRingBuffer(16).withMetrics());
+        final var latch = new CountDownLatch(1000);
+        final var batch = new RunnablePredicate[1000];
+
+        Arrays.fill(batch, (RunnablePredicate) nanoTime -> { latch.countDown(); return true; });
+        scheduler.submitAll(batch);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        scheduler.metrics()
+                 .whenPresent(metrics -> metrics.processors()
+                                                .apply(processor -> assertEquals(250, processor.submitted())));
+        scheduler.shutdown();
+    }
+}
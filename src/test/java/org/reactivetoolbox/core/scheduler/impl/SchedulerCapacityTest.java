@@ -0,0 +1,119 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+import org.junit.jupiter.api.Test;
+import org.reactivetoolbox.core.Errors;
+import org.reactivetoolbox.core.scheduler.RejectionPolicy;
+import org.reactivetoolbox.core.scheduler.SchedulerConfig;
+import org.reactivetoolbox.core.scheduler.SchedulerMetrics;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+import org.reactivetoolbox.core.scheduler.Timeout;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchedulerCapacityTest {
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    @Test
+    void tasksAreRejectedOnceCapacityIsReached() throws InterruptedException {
+        final var scheduler = blockedScheduler(RejectionPolicy.FAIL);
+        final var holder = new AtomicReference<Object>();
+
+        scheduler.trySubmit(() -> {}).onSuccess(holder::set);
+        assertEquals(scheduler, holder.get());
+
+        scheduler.trySubmit(() -> {}).onFailure(holder::set);
+        assertEquals(Errors.OVERLOADED, holder.get());
+        assertThrows(RejectedExecutionException.class, () -> scheduler.submit(() -> {}));
+
+        release(scheduler);
+    }
+
+    @Test
+    void rejectedTaskIsExecutedByCaller() throws InterruptedException {
+        final var scheduler = blockedScheduler(RejectionPolicy.CALLER_RUNS);
+        final var holder = new AtomicReference<Thread>();
+
+        scheduler.submit(() -> {});
+        scheduler.submit(() -> holder.set(Thread.currentThread()));
+
+        assertEquals(Thread.currentThread(), holder.get());
+
+        release(scheduler);
+    }
+
+    @Test
+    void oldestTaskIsDroppedOnceCapacityIsReached() throws InterruptedException {
+        final var scheduler = blockedScheduler(RejectionPolicy.DROP_OLDEST);
+        final var dropped = new AtomicBoolean(false);
+        final var latch = new CountDownLatch(1);
+
+        scheduler.submit(() -> dropped.set(true));
+        scheduler.submit(latch::countDown);
+
+        released.countDown();
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertFalse(dropped.get());
+        scheduler.shutdown();
+    }
+
+    @Test
+    void taskIsRejectedIfOldestTaskIsAlreadyInDeadlineHeap() throws InterruptedException {
+        final var scheduler = TaskScheduler.with(SchedulerConfig.config(1)
+                                                                .withCapacity(2, RejectionPolicy.DROP_OLDEST)
+                                                                .withDeadlineScheduling()
+                                                                .withMetrics());
+        final var executed = new CountDownLatch(2);
+        final var done = new AtomicBoolean(false);
+        final var holder = new AtomicReference<Object>();
+
+        // Both tasks are kept in the heap of the worker between rounds, so they can't be dropped
+        for (int i = 0; i < 2; i++) {
+            scheduler.submit(nanoTime -> {
+                executed.countDown();
+                return done.get();
+            });
+        }
+        assertTrue(executed.await(1, TimeUnit.SECONDS));
+
+        scheduler.trySubmit(() -> {}).onFailure(holder::set);
+        assertEquals(Errors.OVERLOADED, holder.get());
+        assertThrows(RejectedExecutionException.class, () -> scheduler.submit(() -> {}));
+        assertEquals(2L, scheduler.metrics().map(SchedulerMetrics::queueDepth).otherwise(0L));
+
+        done.set(true);
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(Timeout.timeout(5).seconds()));
+    }
+
+    private TaskScheduler blockedScheduler(final RejectionPolicy policy) throws InterruptedException {
+        final var scheduler = TaskScheduler.with(SchedulerConfig.config(1).withCapacity(2, policy));
+
+        scheduler.submit(() -> {
+            started.countDown();
+            try {
+                released.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        return scheduler;
+    }
+
+    private void release(final TaskScheduler scheduler) {
+        released.countDown();
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,101 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+import org.junit.jupiter.api.Test;
+import org.reactivetoolbox.core.lang.Option;
+import org.reactivetoolbox.core.scheduler.Histogram;
+import org.reactivetoolbox.core.scheduler.ProcessorMetrics;
+import org.reactivetoolbox.core.scheduler.SchedulerConfig;
+import org.reactivetoolbox.core.scheduler.SchedulerMetrics;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.reactivetoolbox.core.scheduler.Timeout.timeout;
+
+class SchedulerMetricsTest {
+    @Test
+    void histogramBucketsCoverEntireRange() {
+        for (long value = 0; value < 10_000; value++) {
+            final int bucket = Histogram.bucketOf(value);
+
+            assertTrue(value <= Histogram.upperBoundOf(bucket));
+            assertTrue(bucket == 0 || value > Histogram.upperBoundOf(bucket - 1));
+        }
+
+        assertEquals(Histogram.BUCKETS - 1, Histogram.bucketOf(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, Histogram.upperBoundOf(Histogram.BUCKETS - 1));
+    }
+
+    @Test
+    void histogramReportsPercentilesWithinBucketPrecision() {
+        final var recorder = new LatencyRecorder();
+
+        for (long value = 1; value <= 1000; value++) {
+            recorder.record(value);
+        }
+
+        final var histogram = recorder.snapshot();
+
+        assertEquals(1000, histogram.count());
+        assertEquals(1000, histogram.max());
+        assertEquals(500, histogram.mean());
+        assertTrue(histogram.percentile(50) >= 500 && histogram.percentile(50) <= 500 * 1.125);
+        assertTrue(histogram.percentile(99) >= 990 && histogram.percentile(99) <= 1000);
+        assertEquals(1000, histogram.percentile(100));
+    }
+
+    @Test
+    void metricsAreNotAvailableByDefault() {
+        final var scheduler = TaskScheduler.with(1);
+
+        assertEquals(Option.empty(), scheduler.metrics());
+        scheduler.shutdown();
+    }
+
+    @Test
+    void schedulerCollectsMetrics() throws InterruptedException {
+        final var scheduler = TaskScheduler.with(SchedulerConfig.config(2).withMetrics());
+        final var latch = new CountDownLatch(101);
+        final var rounds = new AtomicInteger();
+
+        for (int i = 0; i < 100; i++) {
+            scheduler.submit(latch::countDown);
+        }
+        scheduler.submit(nanoTime -> rounds.incrementAndGet() >= 3);
+        scheduler.submit(timeout(5).millis(), latch::countDown);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (completed(scheduler) < 101 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        final var metrics = scheduler.metrics().otherwise(null);
+
+        assertEquals(2, metrics.processors().size());
+        assertEquals(101, sum(metrics, ProcessorMetrics::submitted));
+        assertEquals(101, sum(metrics, ProcessorMetrics::completed));
+        assertEquals(2, sum(metrics, ProcessorMetrics::resubmitted));
+        assertEquals(1, sum(metrics, ProcessorMetrics::timersFired));
+        assertEquals(101, sum(metrics, m -> m.queueLatency().count()));
+        assertEquals(103, sum(metrics, m -> m.executionTime().count()));
+        assertEquals(1, sum(metrics, m -> m.timerLateness().count()));
+        assertEquals(0, metrics.queueDepth());
+
+        scheduler.shutdown();
+    }
+
+    private static long completed(final TaskScheduler scheduler) {
+        return scheduler.metrics().map(metrics -> sum(metrics, ProcessorMetrics::completed)).otherwise(0L);
+    }
+
+    private static long sum(final SchedulerMetrics metrics, final ToLongFunction<ProcessorMetrics> extractor) {
+        return metrics.processors().stream().mapToLong(extractor).sum();
+    }
+}
@@ -0,0 +1,140 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+import org.junit.jupiter.api.Test;
+import org.reactivetoolbox.core.Errors;
+import org.reactivetoolbox.core.lang.Failure;
+import org.reactivetoolbox.core.scheduler.SchedulerConfig;
+import org.reactivetoolbox.core.scheduler.TaskScheduler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.reactivetoolbox.core.scheduler.Timeout.timeout;
+
+class SchedulerShutdownTest {
+    @Test
+    void pendingTasksAreProcessedAfterShutdown() {
+        final var scheduler = TaskScheduler.with(2);
+        final var blocker = new CountDownLatch(1);
+        final var counter = new AtomicInteger();
+
+        scheduler.submit(() -> awaitQuietly(blocker));
+        scheduler.submit(() -> awaitQuietly(blocker));
+
+        for (int i = 0; i < 100; i++) {
+            scheduler.submit(counter::incrementAndGet);
+        }
+        scheduler.submit(timeout(20).millis(), counter::incrementAndGet);
+
+        scheduler.shutdown();
+        assertFalse(scheduler.awaitTermination(timeout(10).millis()));
+
+        blocker.countDown();
+
+        assertTrue(scheduler.awaitTermination(timeout(5).seconds()));
+        assertEquals(101, counter.get());
+    }
+
+    @Test
+    void delayedTenantTasksAreExecutedAfterShutdown() {
+        final var scheduler = DeficitRoundRobinScheduler.with(SchedulerConfig.config(2));
+        final var counter = new AtomicInteger();
+
+        scheduler.submit(timeout(20).millis(), counter::incrementAndGet);
+        scheduler.tenant("tenant").submit(timeout(30).millis(), counter::incrementAndGet);
+
+        scheduler.shutdown();
+
+        assertThrows(IllegalStateException.class, () -> scheduler.submit("tenant", nanoTime -> true));
+        assertTrue(scheduler.awaitTermination(timeout(5).seconds()));
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    void newTasksAreRejectedAfterShutdown() {
+        final var scheduler = TaskScheduler.with(1);
+        final var failure = new AtomicReference<Failure>();
+
+        scheduler.shutdown();
+
+        assertThrows(IllegalStateException.class, () -> scheduler.submit(() -> {}));
+        scheduler.trySubmit(() -> {}).onFailure(failure::set);
+        assertEquals(Errors.SHUT_DOWN, failure.get());
+        assertTrue(scheduler.awaitTermination(timeout(5).seconds()));
+    }
+
+    @Test
+    void periodicTasksAreNotRescheduledAfterShutdown() {
+        final var scheduler = TaskScheduler.with(1);
+        final var handle = scheduler.scheduleAtFixedRate(timeout(1).millis(), timeout(1).millis(), () -> {});
+
+        scheduler.shutdown();
+
+        assertTrue(scheduler.awaitTermination(timeout(5).seconds()));
+        assertTrue(handle.isCancelled());
+    }
+
+    @Test
+    void shutdownNowReturnsAbandonedTasks() throws InterruptedException {
+        final var scheduler = TaskScheduler.with(1);
+        final var blocker = new CountDownLatch(1);
+        final var started = new CountDownLatch(1);
+        final var counter = new AtomicInteger();
+
+        scheduler.submit(() -> {
+            started.countDown();
+            awaitQuietly(blocker);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 10; i++) {
+            scheduler.submit(counter::incrementAndGet);
+        }
+        final var delayed = scheduler.schedule(timeout(10).seconds(), counter::incrementAndGet);
+        scheduler.submit(nanoTime -> false);
+
+        new Thread(() -> {
+            awaitQuietly(new CountDownLatch(1), 50);
+            blocker.countDown();
+        }).start();
+
+        final var abandoned = scheduler.shutdownNow();
+
+        assertEquals(12, abandoned.size());
+        assertEquals(0, counter.get());
+        assertTrue(delayed.isCancelled());
+        assertTrue(scheduler.awaitTermination(timeout(1).millis()));
+
+        abandoned.apply(task -> task.isDone(System.nanoTime()));
+        assertEquals(11, counter.get());
+    }
+
+    @Test
+    void neverEndingTasksPreventTermination() {
+        final var scheduler = TaskScheduler.with(1);
+
+        scheduler.submit(nanoTime -> false);
+        scheduler.shutdown();
+
+        assertFalse(scheduler.awaitTermination(timeout(50).millis()));
+        assertEquals(1, scheduler.shutdownNow().size());
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        awaitQuietly(latch, 5_000);
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch, final long millis) {
+        try {
+            latch.await(millis, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
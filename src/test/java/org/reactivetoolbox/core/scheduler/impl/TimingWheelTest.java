@@ -0,0 +1,151 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+    private static final long ORIGIN = 1_000_000_000L;
+
+    @Test
+    void timersAreNotFiredBeforeDeadline() {
+        final var wheel = TimingWheel.wheel(ORIGIN);
+        final var counter = new AtomicInteger();
+
+        wheel.schedule(at(10), counter::incrementAndGet);
+
+        assertEquals(0, wheel.advance(at(9)));
+        assertEquals(0, counter.get());
+        assertEquals(1, wheel.size());
+
+        assertEquals(1, wheel.advance(at(10)));
+        assertEquals(1, counter.get());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void timersAreFiredInDeadlineOrderAcrossLevels() {
+        final var wheel = TimingWheel.wheel(ORIGIN);
+        final var fired = new ArrayList<Long>();
+        final var delays = List.of(70_000L, 5L, 300L, 64L, 4096L, 63L, 1_000_000L, 4095L, 262_144L);
+
+        delays.forEach(delay -> wheel.schedule(at(delay), () -> fired.add(delay)));
+
+        for (long millis = 0; millis <= 1_000_000L; millis += 7) {
+            final var now = millis;
+            wheel.advance(at(millis));
+            fired.forEach(delay -> assertTrue(delay <= now));
+        }
+        wheel.advance(at(1_000_000L));
+
+        assertEquals(delays.stream().sorted().collect(toList()), fired);
+    }
+
+    @Test
+    void timersBeyondWheelRangeAreFired() {
+        final var wheel = TimingWheel.wheel(ORIGIN);
+        final var counter = new AtomicInteger();
+        final long delay = TimeUnit.HOURS.toMillis(6);
+
+        wheel.schedule(at(delay), counter::incrementAndGet);
+
+        for (long millis = 0; millis < delay; millis += 1000) {
+            wheel.advance(at(millis));
+        }
+        assertEquals(0, counter.get());
+
+        wheel.advance(at(delay));
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    void expiredTimersAreFiredOnNextAdvance() {
+        final var wheel = TimingWheel.wheel(ORIGIN);
+        final var counter = new AtomicInteger();
+
+        wheel.advance(at(100));
+        wheel.schedule(at(50), counter::incrementAndGet);
+        wheel.advance(at(100));
+
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    void cancelledTimersAreRemovedAndNotFired() {
+        final var wheel = TimingWheel.wheel(ORIGIN);
+        final var counter = new AtomicInteger();
+
+        final var beforePlacement = wheel.schedule(at(10), counter::incrementAndGet);
+        assertTrue(beforePlacement.cancel());
+
+        wheel.advance(at(1));
+        final var placed = wheel.schedule(at(30_000), counter::incrementAndGet);
+        final var remaining = wheel.schedule(at(20), counter::incrementAndGet);
+        wheel.advance(at(2));
+        assertEquals(2, wheel.size());
+
+        assertTrue(placed.cancel());
+        assertFalse(placed.cancel());
+        assertTrue(placed.isCancelled());
+
+        wheel.advance(at(3));
+        assertEquals(1, wheel.size());
+
+        wheel.advance(at(30_000));
+        assertEquals(1, counter.get());
+        assertEquals(0, wheel.size());
+        assertFalse(remaining.cancel());
+        assertFalse(remaining.isCancelled());
+    }
+
+    @Test
+    void timerCancelledInBucketBeforeRemovalIsNotFired() {
+        final var wheel = TimingWheel.wheel(ORIGIN);
+        final var counter = new AtomicInteger();
+
+        wheel.schedule(at(5), () -> {});
+        final var handle = wheel.schedule(at(10), counter::incrementAndGet);
+        wheel.schedule(at(5), handle::cancel);
+
+        assertEquals(0, wheel.advance(at(4)));
+        assertEquals(2, wheel.advance(at(10)));
+        assertEquals(0, counter.get());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void timersScheduledBetweenAdvancesAreFiredWithoutDelay() {
+        final var wheel = TimingWheel.wheel(ORIGIN);
+        final var random = new Random(42);
+        final var scheduled = new int[1100];
+        final var fired = new AtomicInteger();
+        int due = 0;
+
+        for (int millis = 0; millis < 1000; millis++) {
+            for (int i = 0; i < 100; i++) {
+                final int deadline = millis + 5 + random.nextInt(90);
+
+                scheduled[deadline]++;
+                wheel.schedule(at(deadline), fired::incrementAndGet);
+            }
+
+            wheel.advance(at(millis));
+            due += scheduled[millis];
+
+            assertEquals(due, fired.get());
+        }
+    }
+
+    private static long at(final long millis) {
+        return ORIGIN + TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
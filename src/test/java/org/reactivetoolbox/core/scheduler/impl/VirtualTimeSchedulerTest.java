@@ -0,0 +1,119 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+import org.junit.jupiter.api.Test;
+import org.reactivetoolbox.core.Errors;
+import org.reactivetoolbox.core.async.Promise;
+import org.reactivetoolbox.core.lang.Result;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.reactivetoolbox.core.scheduler.Timeout.timeout;
+
+class VirtualTimeSchedulerTest {
+    @Test
+    void timeJumpsToNextDelayedTask() {
+        final var start = LocalDateTime.of(2019, 1, 1, 0, 0);
+        final var scheduler = VirtualTimeScheduler.virtualTime(start);
+        final var order = new ArrayList<String>();
+
+        scheduler.submit(timeout(1).hours(), () -> order.add("hour"));
+        scheduler.submit(timeout(10).seconds(), () -> order.add("ten seconds"));
+        scheduler.submit(timeout(1).seconds(), () -> order.add("second"));
+        scheduler.submit(() -> order.add("immediate"));
+
+        assertEquals(4, scheduler.runUntilIdle());
+        assertEquals(List.of("immediate", "second", "ten seconds", "hour"), order);
+        assertEquals(TimeUnit.HOURS.toNanos(1), scheduler.nanoTime());
+        assertEquals(start.plusHours(1).toInstant(ZoneOffset.UTC), scheduler.clock().instant());
+    }
+
+    @Test
+    void zonedClockFollowsVirtualTime() {
+        final var start = LocalDateTime.of(2019, 1, 1, 0, 0);
+        final var scheduler = VirtualTimeScheduler.virtualTime(start);
+        final var zone = ZoneId.of("Europe/Kiev");
+        final var zoned = scheduler.clock().withZone(zone);
+
+        scheduler.submit(timeout(1).hours(), () -> {});
+        scheduler.runUntilIdle();
+
+        assertEquals(zone, zoned.getZone());
+        assertEquals(scheduler.clock().instant(), zoned.instant());
+        assertEquals(start.plusHours(1).toInstant(ZoneOffset.UTC), zoned.instant());
+    }
+
+    @Test
+    void advanceByExecutesOnlyDueTasks() {
+        final var scheduler = VirtualTimeScheduler.virtualTime();
+        final var counter = new AtomicInteger();
+
+        scheduler.scheduleAtFixedRate(timeout(100).millis(), timeout(100).millis(), counter::incrementAndGet);
+        final var cancelled = scheduler.schedule(timeout(50).millis(), () -> counter.addAndGet(1000));
+
+        assertTrue(cancelled.cancel());
+
+        scheduler.advanceBy(timeout(1).seconds());
+
+        assertEquals(10, counter.get());
+        assertEquals(TimeUnit.SECONDS.toNanos(1), scheduler.nanoTime());
+        assertEquals(1, scheduler.pending());
+    }
+
+    @Test
+    void pollingTaskDoesNotStopTime() {
+        final var scheduler = VirtualTimeScheduler.virtualTime();
+        final var released = new AtomicInteger();
+        final var polls = new AtomicInteger();
+
+        scheduler.submit(nanoTime -> {
+            polls.incrementAndGet();
+            return released.get() > 0;
+        });
+        scheduler.submit(timeout(1).seconds(), released::incrementAndGet);
+
+        scheduler.runUntilIdle();
+
+        assertEquals(0, scheduler.pending());
+        assertEquals(2, polls.get());
+    }
+
+    @Test
+    void timeoutHeavyWorkloadIsSimulatedDeterministically() {
+        assertEquals(simulate(), simulate());
+    }
+
+    private static int simulate() {
+        final var scheduler = VirtualTimeScheduler.virtualTime();
+        final var succeeded = new AtomicInteger();
+        final int count = 100_000;
+
+        for (int i = 0; i < count; i++) {
+            final int value = i;
+
+            scheduler.submit(timeout(i % 1000).millis(), () ->
+                    Promise.<Integer>promise()
+                           .when(scheduler, timeout(value % 100).millis(), () -> Result.ok(value))
+                           .when(scheduler, timeout(50).millis(), () -> Errors.TIMEOUT.asResult())
+                           .onSuccess(v -> succeeded.incrementAndGet()));
+        }
+
+        scheduler.runUntilIdle();
+
+        assertEquals(0, scheduler.pending());
+        assertFalse(scheduler.nanoTime() > TimeUnit.MILLISECONDS.toNanos(1100));
+
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(timeout(1).seconds()));
+
+        return succeeded.get();
+    }
+}
@@ -0,0 +1,76 @@
+package org.reactivetoolbox.core.scheduler.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WorkStealingTest {
+    private static final int N_TASKS = 10;
+
+    @Test
+    void oldestPendingTasksAreMovedToThief() {
+        final var victim = new PredicateProcessor();
+        final var thief = new PredicateProcessor();
+        final var executed = new ArrayList<Integer>();
+
+        for (int i = 0; i < N_TASKS; i++) {
+            final int id = i;
+            victim.submit(nanoTime -> executed.add(id));
+        }
+
+        assertEquals(4, thief.stealFrom(victim, 4));
+        assertEquals(N_TASKS - 4, victim.pending());
+        assertEquals(4, thief.pending());
+
+        drain(victim);
+        assertEquals(IntStream.range(4, N_TASKS).boxed().collect(toList()), executed);
+
+        executed.clear();
+        drain(thief);
+        assertEquals(IntStream.range(0, 4).boxed().collect(toList()), executed);
+
+        assertEquals(0, victim.pending());
+        assertEquals(0, thief.pending());
+    }
+
+    @Test
+    void stealingStopsWhenVictimHasNoQueuedTasks() {
+        final var victim = new PredicateProcessor();
+        final var thief = new PredicateProcessor();
+
+        victim.submit(nanoTime -> true);
+        victim.submit(nanoTime -> true);
+
+        assertEquals(2, thief.stealFrom(victim, N_TASKS));
+        assertEquals(0, thief.stealFrom(victim, N_TASKS));
+        assertEquals(0, victim.pending());
+        assertEquals(2, thief.pending());
+    }
+
+    @Test
+    void tasksInDeadlineHeapAreNotStolen() {
+        final var victim = new PredicateProcessor(LinkedTransferQueue::new, false, true);
+        final var thief = new PredicateProcessor();
+
+        for (int i = 0; i < 2; i++) {
+            victim.submit(nanoTime -> false);
+        }
+
+        victim.processTimeoutsOnce();
+
+        assertEquals(0, thief.stealFrom(victim, N_TASKS));
+        assertEquals(2, victim.pending());
+        assertEquals(0, thief.pending());
+    }
+
+    private static void drain(final PredicateProcessor processor) {
+        for (int i = 0; i < N_TASKS && processor.pending() > 0; i++) {
+            processor.processTimeoutsOnce();
+        }
+    }
+}